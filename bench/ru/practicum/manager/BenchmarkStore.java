@@ -0,0 +1,105 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Epic;
+import ru.practicum.model.Status;
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Заполняет менеджер для бенчмарков. Данные кладутся через restore(), а не через createTask():
+ * иначе подготовка хранилища на миллион записей сама упиралась бы в измеряемые операции.
+ * Половина хранилища — задачи, половина — подзадачи, по SUBTASKS_PER_EPIC на эпик.
+ * Все интервалы непересекающиеся, следующий свободный слот отдаёт {@link #nextSlot()}.
+ */
+public class BenchmarkStore {
+    static final int SUBTASKS_PER_EPIC = 100;
+    static final Duration SLOT_DURATION = Duration.ofMinutes(30);
+    static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    final InMemoryTaskManager manager;
+    final List<Integer> taskIds = new ArrayList<>();
+    final List<Epic> epics = new ArrayList<>();
+    final File file;
+    private int slot;
+    private int nextId;
+
+    BenchmarkStore(ManagerType managerType, int storeSize) {
+        if (managerType != ManagerType.IN_MEMORY) {
+            try {
+                file = File.createTempFile("kanban-bench", ".csv");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            manager = switch (managerType) {
+                case FILE_BACKED_GROUP_COMMIT -> new FileBackedTaskManager(file, GroupCommitSettings.defaults());
+                case FILE_BACKED_BINARY -> new FileBackedTaskManager(file, SnapshotFormat.BINARY);
+                default -> new FileBackedTaskManager(file);
+            };
+        } else {
+            file = null;
+            manager = new InMemoryTaskManager();
+        }
+        nextId = InMemoryTaskManager.taskCount + 1;
+
+        int taskCount = storeSize / 2;
+        int subtaskCount = storeSize - taskCount;
+        int epicCount = Math.max(1, subtaskCount / SUBTASKS_PER_EPIC);
+
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new Task("Задача " + i, "Описание задачи " + i, manager, Status.NEW, nextSlot(),
+                    SLOT_DURATION);
+            task.setId(nextId++);
+            manager.restore(task);
+            taskIds.add(task.getId());
+        }
+        for (int i = 0; i < epicCount; i++) {
+            Epic epic = new Epic("Эпик " + i, "Описание эпика " + i, manager, Status.NEW);
+            epic.setId(nextId++);
+            manager.restore(epic);
+            epics.add(epic);
+        }
+        fillSubtasks(subtaskCount);
+
+        if (manager instanceof FileBackedTaskManager) {
+            ((FileBackedTaskManager) manager).save();
+        }
+    }
+
+    void fillSubtasks(int subtaskCount) {
+        for (int i = 0; i < subtaskCount; i++) {
+            Epic epic = epics.get(i % epics.size());
+            Subtask subtask = new Subtask("Подзадача " + i, "Описание подзадачи " + i, manager, epic.getId(),
+                    i % 3 == 0 ? Status.DONE : Status.NEW, nextSlot(), SLOT_DURATION);
+            subtask.setId(nextId++);
+            manager.restore(subtask);
+        }
+    }
+
+    LocalDateTime nextSlot() {
+        return FIRST_SLOT.plusHours(slot++);
+    }
+
+    void close() {
+        if (manager instanceof FileBackedTaskManager) {
+            ((FileBackedTaskManager) manager).close();
+        }
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    public enum ManagerType {
+        IN_MEMORY,
+        FILE_BACKED,
+        FILE_BACKED_GROUP_COMMIT,
+        FILE_BACKED_BINARY
+    }
+}
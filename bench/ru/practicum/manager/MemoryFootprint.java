@@ -0,0 +1,80 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Status;
+import ru.practicum.model.Task;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Отчёт о памяти структур по id в духе JOL: сколько байт на элемент удерживает сама структура,
+ * без задач — задачи создаются заранее и общие для всех замеров. Сравнивается HashMap&lt;Integer, Task&gt;
+ * (как было в хранилищах и истории) с IntObjectMap, а также EntityStore и история целиком.
+ * Замер — разница занятой кучи после сборки мусора, поэтому числа приблизительные, но стабильные
+ * при размерах от сотни тысяч элементов.
+ * Запуск: java -cp <classpath> ru.practicum.manager.MemoryFootprint [размер]
+ */
+public class MemoryFootprint {
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Task[] tasks = new Task[size];
+        for (int i = 0; i < size; i++) {
+            tasks[i] = new Task("Задача", "Описание", null, Status.NEW, null, null);
+            // id выше кеша Integer.valueOf, как в живом хранилище
+            tasks[i].setId(1_000 + i);
+        }
+
+        System.out.printf("%-32s %14s %10s%n", "Структура", "Байт всего", "Байт/id");
+        report("HashMap<Integer, Task>", size, n -> {
+            Map<Integer, Task> map = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                map.put(tasks[i].getId(), tasks[i]);
+            }
+            return map;
+        });
+        report("IntObjectMap<Task>", size, n -> {
+            IntObjectMap<Task> map = new IntObjectMap<>();
+            for (int i = 0; i < n; i++) {
+                map.put(tasks[i].getId(), tasks[i]);
+            }
+            return map;
+        });
+        report("EntityStore<Task>", size, n -> {
+            EntityStore<Task> store = new EntityStore<>();
+            for (int i = 0; i < n; i++) {
+                store.put(tasks[i].getId(), tasks[i]);
+            }
+            return store;
+        });
+        report("InMemoryHistoryManager", size, n -> {
+            InMemoryHistoryManager history = new InMemoryHistoryManager(n);
+            for (int i = 0; i < n; i++) {
+                history.add(tasks[i]);
+            }
+            return history;
+        });
+    }
+
+    private static void report(String name, int size, Function<Integer, Object> factory) {
+        long before = usedHeap();
+        Object structure = factory.apply(size);
+        long retained = usedHeap() - before;
+        System.out.printf("%-32s %14d %10.1f%n", name, retained, (double) retained / size);
+        // Ссылка держится до замера, чтобы структуру не собрали раньше времени
+        if (structure.hashCode() == 42) {
+            System.out.print("");
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ru.practicum.model.Task;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись и чтение снимка FileBackedTaskManager в CSV и двоичном формате.
+ * loadFromFile включает построение хранилищ и индексов (restoreAll), которое одинаково для обоих форматов
+ * и занимает большую часть загрузки; decode измеряет только разбор файла в список задач.
+ * Запуск: java -cp <classpath> org.openjdk.jmh.Main SnapshotBenchmark [-p storeSize=1000000]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SnapshotBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    int storeSize;
+
+    @Param({"FILE_BACKED", "FILE_BACKED_BINARY"})
+    BenchmarkStore.ManagerType managerType;
+
+    BenchmarkStore store;
+
+    @Setup
+    public void setUp() {
+        store = new BenchmarkStore(managerType, storeSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    public void save() {
+        ((FileBackedTaskManager) store.manager).save();
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFile() {
+        return new FileBackedTaskManager(store.file);
+    }
+
+    // У CSV нет отдельного шага разбора: строки разбираются прямо в loadFromFile, поэтому для него строка пустая
+    @Benchmark
+    public List<Task> decode() {
+        if (managerType != BenchmarkStore.ManagerType.FILE_BACKED_BINARY) {
+            return List.of();
+        }
+        return BinarySnapshot.read(store.file, store.manager);
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.model.Epic;
+import ru.practicum.model.Status;
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути TaskManager на хранилищах разного размера.
+ * Запуск: java -cp <classpath> org.openjdk.jmh.Main TaskManagerBenchmark [-p storeSize=10000]
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TaskManagerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class StoreState {
+        @Param({"1000", "10000", "100000", "1000000"})
+        int storeSize;
+
+        @Param({"IN_MEMORY", "FILE_BACKED", "FILE_BACKED_GROUP_COMMIT"})
+        BenchmarkStore.ManagerType managerType;
+
+        BenchmarkStore store;
+        int created;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            store = new BenchmarkStore(managerType, storeSize);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            store.close();
+        }
+
+        int randomTaskId() {
+            List<Integer> ids = store.taskIds;
+            return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+
+        Epic largestEpic() {
+            return store.epics.get(0);
+        }
+    }
+
+    // Удаление разрушает хранилище, поэтому подзадачи возвращаются перед каждым вызовом
+    @State(Scope.Benchmark)
+    public static class RefilledState extends StoreState {
+        @Setup(Level.Invocation)
+        public void refill() {
+            if (store.manager.getAllSubtasks().isEmpty()) {
+                store.fillSubtasks(storeSize - storeSize / 2);
+            }
+        }
+    }
+
+    @Benchmark
+    public Task createTask(StoreState state) {
+        InMemoryTaskManager manager = state.store.manager;
+        return manager.createTask(new Task("Новая задача " + state.created++, "Описание", manager, Status.NEW,
+                state.store.nextSlot(), BenchmarkStore.SLOT_DURATION));
+    }
+
+    @Benchmark
+    public Subtask createSubtask(StoreState state) {
+        InMemoryTaskManager manager = state.store.manager;
+        return manager.createSubtask(new Subtask("Новая подзадача " + state.created++, "Описание", manager,
+                state.largestEpic().getId(), Status.NEW, state.store.nextSlot(), BenchmarkStore.SLOT_DURATION));
+    }
+
+    @Benchmark
+    public Task getTaskByIdWithHistory(StoreState state) {
+        return state.store.manager.getTaskById(state.randomTaskId());
+    }
+
+    @Benchmark
+    public void getPrioritizedTasks(StoreState state, Blackhole blackhole) {
+        blackhole.consume(state.store.manager.getPrioritizedTasks());
+    }
+
+    // Сутки расписания в случайном месте: в ответе около 24 задач при любом размере хранилища
+    @Benchmark
+    public void getPrioritizedTasksForDay(StoreState state, Blackhole blackhole) {
+        LocalDateTime from = BenchmarkStore.FIRST_SLOT.plusHours(
+                ThreadLocalRandom.current().nextInt(state.storeSize));
+        blackhole.consume(state.store.manager.getPrioritizedTasks(from, from.plusDays(1)));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, batchSize = 1)
+    @Measurement(iterations = 5, batchSize = 1)
+    public void deleteAllSubtasks(RefilledState state) {
+        state.store.manager.deleteAllSubtasks();
+    }
+
+    @Benchmark
+    public boolean updateEpic(StoreState state) {
+        return state.store.manager.updateEpic(state.largestEpic());
+    }
+}
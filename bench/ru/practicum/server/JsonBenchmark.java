@@ -0,0 +1,155 @@
+package ru.practicum.server;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.model.Epic;
+import ru.practicum.model.Status;
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация и разбор списков задач: рефлексивный Gson с @Expose (как было в BaseHttpHandler)
+ * против Gson с ручными адаптерами. Список — по 1000 задач и подзадач, эпики по 10 подзадач.
+ * writeEpicsOverview — обзор доски: эпики без подзадач и только id, title, status (?fields=&expand не задан).
+ * Запуск: java -cp <classpath> org.openjdk.jmh.Main JsonBenchmark [-prof gc]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+    private static final int SIZE = 1000;
+    private static final Type TASKS = new TypeToken<List<Task>>() { }.getType();
+    private static final Type SUBTASKS = new TypeToken<List<Subtask>>() { }.getType();
+    private static final Type EPICS = new TypeToken<List<Epic>>() { }.getType();
+
+    @Param({"REFLECTIVE", "ADAPTERS"})
+    Codec codec;
+
+    Gson gson;
+    Gson overviewGson;
+    List<Task> tasks;
+    List<Subtask> subtasks;
+    List<Epic> epics;
+    String tasksJson;
+    String subtasksJson;
+
+    @Setup
+    public void setUp() {
+        GsonBuilder builder = new GsonBuilder()
+                .excludeFieldsWithoutExposeAnnotation()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter());
+        if (codec == Codec.ADAPTERS) {
+            builder.registerTypeAdapter(Task.class, new TaskAdapter())
+                    .registerTypeAdapter(Subtask.class, new SubtaskAdapter())
+                    .registerTypeAdapter(Epic.class, new EpicAdapter());
+        }
+        gson = builder.create();
+        JsonView overview = new JsonView(Set.of("id", "title", "status"), false);
+        if (codec == Codec.ADAPTERS) {
+            overviewGson = gson.newBuilder()
+                    .registerTypeAdapter(Task.class, new TaskAdapter(overview))
+                    .registerTypeAdapter(Subtask.class, new SubtaskAdapter(overview))
+                    .registerTypeAdapter(Epic.class, new EpicAdapter(overview))
+                    .create();
+        } else {
+            // Рефлексивный вариант того же представления: лишние поля и подзадачи эпика отсекаются при обходе
+            overviewGson = gson.newBuilder()
+                    .addSerializationExclusionStrategy(new ExclusionStrategy() {
+                        @Override
+                        public boolean shouldSkipField(FieldAttributes field) {
+                            return !overview.fields().contains(field.getName());
+                        }
+
+                        @Override
+                        public boolean shouldSkipClass(Class<?> type) {
+                            return false;
+                        }
+                    })
+                    .create();
+        }
+
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        tasks = new ArrayList<>();
+        subtasks = new ArrayList<>();
+        epics = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            Task task = new Task("Задача " + i, "Описание задачи " + i, null, Status.NEW,
+                    start.plusHours(i), Duration.ofMinutes(30));
+            task.setId(i + 1);
+            tasks.add(task);
+        }
+        for (int i = 0; i < SIZE; i++) {
+            if (i % 10 == 0) {
+                Epic epic = new Epic("Эпик " + i, "Описание эпика " + i, null, Status.NEW);
+                epic.setId(SIZE * 2 + i);
+                epics.add(epic);
+            }
+            Epic epic = epics.get(epics.size() - 1);
+            Subtask subtask = new Subtask("Подзадача " + i, "Описание подзадачи " + i, null, epic.getId(),
+                    i % 3 == 0 ? Status.DONE : Status.NEW, start.plusHours(SIZE + i), Duration.ofMinutes(45));
+            subtask.setId(SIZE + i + 1);
+            subtasks.add(subtask);
+            epic.addSubtask(subtask);
+        }
+        // Рефлексивный Gson читает снимок подзадач из поля напрямую, поэтому он собирается заранее
+        epics.forEach(Epic::getSubtasks);
+        tasksJson = gson.toJson(tasks, TASKS);
+        subtasksJson = gson.toJson(subtasks, SUBTASKS);
+    }
+
+    @Benchmark
+    public String writeTasks() {
+        return gson.toJson(tasks, TASKS);
+    }
+
+    @Benchmark
+    public String writeEpics() {
+        return gson.toJson(epics, EPICS);
+    }
+
+    @Benchmark
+    public String writeEpicsOverview() {
+        return overviewGson.toJson(epics, EPICS);
+    }
+
+    @Benchmark
+    public List<Task> readTasks() {
+        return gson.fromJson(tasksJson, TASKS);
+    }
+
+    @Benchmark
+    public List<Subtask> readSubtasks() {
+        return gson.fromJson(subtasksJson, SUBTASKS);
+    }
+
+    public enum Codec {
+        REFLECTIVE,
+        ADAPTERS
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Task;
+import ru.practicum.model.TaskType;
+
+/**
+ * Одна операция пакета для {@link TaskManager#applyBatch}. Для создания и изменения тип берётся из самой
+ * задачи, для изменения и удаления id указывает на существующую задачу.
+ */
+public final class BatchOperation {
+    public enum Kind {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    private final Kind kind;
+    private final TaskType type;
+    private final int id;
+    private final Task task;
+
+    private BatchOperation(Kind kind, TaskType type, int id, Task task) {
+        this.kind = kind;
+        this.type = type;
+        this.id = id;
+        this.task = task;
+    }
+
+    public static BatchOperation create(Task task) {
+        return new BatchOperation(Kind.CREATE, task.getType(), 0, task);
+    }
+
+    public static BatchOperation update(Task task) {
+        return new BatchOperation(Kind.UPDATE, task.getType(), task.getId(), task);
+    }
+
+    public static BatchOperation delete(TaskType type, int id) {
+        return new BatchOperation(Kind.DELETE, type, id, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+}
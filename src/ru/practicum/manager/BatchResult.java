@@ -0,0 +1,68 @@
+package ru.practicum.manager;
+
+import com.google.gson.annotations.Expose;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Итог {@link TaskManager#applyBatch}: пакет применяется целиком или не применяется вовсе.
+ * Результаты идут в порядке операций; у применённого пакета в каждом — id задачи,
+ * у отклонённого — ошибки тех операций, из-за которых он отклонён.
+ */
+public final class BatchResult {
+    public static final class Item {
+        @Expose
+        private final Integer id;
+        @Expose
+        private final String error;
+
+        private Item(Integer id, String error) {
+            this.id = id;
+            this.error = error;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    @Expose
+    private final boolean applied;
+    @Expose
+    private final List<Item> results;
+
+    private BatchResult(boolean applied, List<Item> results) {
+        this.applied = applied;
+        this.results = Collections.unmodifiableList(results);
+    }
+
+    static BatchResult applied(int[] ids) {
+        List<Item> results = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            results.add(new Item(id, null));
+        }
+        return new BatchResult(true, results);
+    }
+
+    static BatchResult rejected(String[] errors) {
+        List<Item> results = new ArrayList<>(errors.length);
+        for (String error : errors) {
+            results.add(new Item(null, error));
+        }
+        return new BatchResult(false, results);
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public List<Item> getResults() {
+        return results;
+    }
+}
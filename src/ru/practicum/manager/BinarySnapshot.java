@@ -0,0 +1,216 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Epic;
+import ru.practicum.model.Status;
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+import ru.practicum.model.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Двоичный снимок задач. Заголовок: MAGIC (int), VERSION (short), число записей (int).
+ * Каждая запись предваряется своей длиной (int), поэтому читатель может пропустить поля,
+ * добавленные в следующих версиях. Поля записи: тип (byte, ordinal), id (int), id эпика (int, -1 — нет),
+ * статус (byte, ordinal, -1 — нет), начало в секундах от эпохи UTC (long, NO_TIME — нет),
+ * длительность в минутах (long, -1 — нет), заголовок и описание — длина в байтах (int, -1 — null) и UTF-8.
+ * Начало хранится в секундах, а не в минутах: те же 8 байт, зато время с секундами не округляется.
+ * Повреждённый файл (неизвестный тип или статус, длина за пределами записи) даёт ManagerSaveException.
+ */
+final class BinarySnapshot {
+    static final int MAGIC = 0x4B424E53;
+    static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Integer.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private BinarySnapshot() {
+    }
+
+    static boolean isBinary(File file) {
+        if (file.length() < Integer.BYTES) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic) < 0) {
+                    return false;
+                }
+            }
+            return magic.flip().getInt() == MAGIC;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось прочитать снимок", e);
+        }
+    }
+
+    static ByteBuffer encode(Collection<? extends Task> entities) {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, HEADER_SIZE + entities.size() * 64));
+        buffer.putInt(MAGIC).putShort(VERSION).putInt(entities.size());
+
+        for (Task task : entities) {
+            byte[] title = bytesOf(task.getTitle());
+            byte[] description = bytesOf(task.getDescription());
+            int recordSize = 1 + Integer.BYTES * 2 + 1 + Long.BYTES * 2 + Integer.BYTES * 2
+                    + lengthOf(title) + lengthOf(description);
+            if (buffer.remaining() < Integer.BYTES + recordSize) {
+                buffer = grow(buffer, Integer.BYTES + recordSize);
+            }
+
+            LocalDateTime startTime = task.getStartTime();
+            Duration duration = task.getDuration();
+            buffer.putInt(recordSize)
+                    .put((byte) task.getType().ordinal())
+                    .putInt(task.getId())
+                    .putInt(task instanceof Subtask ? ((Subtask) task).getEpicId() : -1)
+                    .put((byte) (task.getStatus() != null ? task.getStatus().ordinal() : -1))
+                    .putLong(startTime != null ? startTime.toEpochSecond(ZoneOffset.UTC) : NO_TIME)
+                    .putLong(duration != null ? duration.toMinutes() : -1);
+            putString(buffer, title);
+            putString(buffer, description);
+        }
+        return buffer.flip();
+    }
+
+    static List<Task> read(File file, TaskManager taskManager) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+            buffer = fill(channel, buffer, HEADER_SIZE);
+            if (buffer.getInt() != MAGIC) {
+                throw new ManagerSaveException("Файл не является двоичным снимком: " + file);
+            }
+            short version = buffer.getShort();
+            if (version > VERSION) {
+                throw new ManagerSaveException("Неподдерживаемая версия снимка: " + version);
+            }
+            int count = buffer.getInt();
+
+            List<Task> entities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                buffer = fill(channel, buffer, Integer.BYTES);
+                int recordSize = buffer.getInt();
+                if (recordSize < 0) {
+                    throw corrupt("отрицательная длина записи");
+                }
+                buffer = fill(channel, buffer, recordSize);
+                int recordEnd = buffer.position() + recordSize;
+                entities.add(readRecord(buffer.slice(buffer.position(), recordSize), taskManager));
+                buffer.position(recordEnd);
+            }
+            return entities;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось прочитать данные из файла", e);
+        }
+    }
+
+    // Запись читается из среза ровно её длины, поэтому поле за её пределами даёт BufferUnderflowException
+    private static Task readRecord(ByteBuffer buffer, TaskManager taskManager) {
+        try {
+            return decodeRecord(buffer, taskManager);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw corrupt("поле выходит за пределы записи");
+        }
+    }
+
+    private static Task decodeRecord(ByteBuffer buffer, TaskManager taskManager) {
+        byte typeOrdinal = buffer.get();
+        if (typeOrdinal < 0 || typeOrdinal >= TYPES.length) {
+            throw corrupt("неизвестный тип задачи " + typeOrdinal);
+        }
+        TaskType type = TYPES[typeOrdinal];
+        int id = buffer.getInt();
+        int epicId = buffer.getInt();
+        byte statusOrdinal = buffer.get();
+        if (statusOrdinal < -1 || statusOrdinal >= STATUSES.length) {
+            throw corrupt("неизвестный статус " + statusOrdinal);
+        }
+        Status status = statusOrdinal >= 0 ? STATUSES[statusOrdinal] : null;
+        long startSeconds = buffer.getLong();
+        LocalDateTime startTime = startSeconds != NO_TIME
+                ? LocalDateTime.ofEpochSecond(startSeconds, 0, ZoneOffset.UTC)
+                : null;
+        long minutes = buffer.getLong();
+        Duration duration = minutes >= 0 ? Duration.ofMinutes(minutes) : null;
+        String title = getString(buffer);
+        String description = getString(buffer);
+
+        Task task = switch (type) {
+            case TASK -> new Task(title, description, taskManager, status, startTime, duration);
+            case SUBTASK -> new Subtask(title, description, taskManager, epicId, status, startTime, duration);
+            case EPIC -> new Epic(title, description, taskManager, status);
+        };
+        task.setId(id);
+        return task;
+    }
+
+    private static ManagerSaveException corrupt(String reason) {
+        return new ManagerSaveException("Снимок повреждён: " + reason);
+    }
+
+    // Гарантирует, что в буфере есть хотя бы required непрочитанных байт; при необходимости буфер растёт
+    private static ByteBuffer fill(FileChannel channel, ByteBuffer buffer, int required) throws IOException {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        buffer.compact();
+        if (buffer.capacity() < required) {
+            buffer = ByteBuffer.allocate(required).put(buffer.flip());
+        }
+        while (buffer.position() < required) {
+            if (channel.read(buffer) < 0) {
+                throw new ManagerSaveException("Снимок обрывается на середине записи");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int required) {
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + required);
+        return ByteBuffer.allocate(capacity).put(buffer.flip());
+    }
+
+    private static byte[] bytesOf(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int lengthOf(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,169 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Epic;
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Потокобезопасный менеджер для многопоточного HTTP-сервера.
+ * Чтение по id и списки читают ConcurrentHashMap напрямую и не ждут писателей.
+ * Порядок захвата блокировок: storeLock → блокировка эпика → scheduleLock.
+ * storeLock на запись берут только массовые удаления и пакеты, остальные изменения — на чтение.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    // Блокировки эпиков полосатые: эпик с id берёт EPIC_LOCK_STRIPES[id & маска]. Полосы не создаются
+    // и не удаляются, поэтому два потока не могут держать разные блокировки одного эпика, а их число
+    // не растёт с числом эпиков. Эпики из одной полосы просто изменяются по очереди
+    private static final int EPIC_LOCK_STRIPES = 64;
+
+    private final AtomicInteger idGenerator = new AtomicInteger(taskCount);
+
+    private final ReentrantReadWriteLock storeLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock scheduleLock = new ReentrantReadWriteLock();
+    private final Lock epicCreationLock = new ReentrantLock();
+    private final Lock[] epicLocks = new Lock[EPIC_LOCK_STRIPES];
+
+    public ConcurrentTaskManager() {
+        super();
+        tasks = EntityStore.concurrent();
+        epics = EntityStore.concurrent();
+        subtasks = EntityStore.concurrent();
+        contentIndex = ContentIndex.concurrent();
+        historyManager = new SynchronizedHistoryManager(historyManager);
+        for (int i = 0; i < epicLocks.length; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public int getCurrentTaskCount() {
+        return idGenerator.incrementAndGet();
+    }
+
+    @Override
+    public Task createTask(Task task) {
+        return withLocks(() -> super.createTask(task), storeLock.readLock(), scheduleLock.writeLock());
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        withLocks(() -> {
+            super.updateTask(task);
+            return null;
+        }, storeLock.readLock(), scheduleLock.writeLock());
+    }
+
+    @Override
+    public boolean deleteTask(int id) {
+        return withLocks(() -> super.deleteTask(id), storeLock.readLock(), scheduleLock.writeLock());
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        withLocks(() -> {
+            super.deleteAllTasks();
+            return null;
+        }, storeLock.writeLock(), scheduleLock.writeLock());
+    }
+
+    // Пакет проверяется и применяется как одно целое: пока он идёт, других изменений нет.
+    // Блокировки эпиков внутри берутся уже после scheduleLock, но без storeLock их никто другой не держит
+    @Override
+    public BatchResult applyBatch(List<BatchOperation> operations) {
+        return withLocks(() -> super.applyBatch(operations), storeLock.writeLock(), scheduleLock.writeLock());
+    }
+
+    @Override
+    public Epic createEpic(Epic epic) {
+        return withLocks(() -> super.createEpic(epic), storeLock.readLock(), epicCreationLock);
+    }
+
+    @Override
+    public boolean updateEpic(Epic epic) {
+        return withLocks(() -> super.updateEpic(epic), storeLock.readLock(), epicLock(epic.getId()));
+    }
+
+    @Override
+    public boolean deleteEpic(int id) {
+        return withLocks(() -> super.deleteEpic(id), storeLock.readLock(), epicLock(id),
+                scheduleLock.writeLock());
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        withLocks(() -> {
+            super.deleteAllEpics();
+            return null;
+        }, storeLock.writeLock(), scheduleLock.writeLock());
+    }
+
+    @Override
+    public Subtask createSubtask(Subtask newSubtask) {
+        return withLocks(() -> super.createSubtask(newSubtask), storeLock.readLock(),
+                epicLock(newSubtask.getEpicId()), scheduleLock.writeLock());
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        withLocks(() -> {
+            super.deleteAllSubtasks();
+            return null;
+        }, storeLock.writeLock(), scheduleLock.writeLock());
+    }
+
+    @Override
+    public boolean removeSubtaskById(int id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask == null) {
+            return false;
+        }
+        return withLocks(() -> super.removeSubtaskById(id), storeLock.readLock(),
+                epicLock(subtask.getEpicId()), scheduleLock.writeLock());
+    }
+
+    @Override
+    public boolean updateSubtask(Subtask updatedSubtask, int updateSubtaskId) {
+        if (updatedSubtask == null) {
+            return false;
+        }
+        return withLocks(() -> super.updateSubtask(updatedSubtask, updateSubtaskId), storeLock.readLock(),
+                epicLock(updatedSubtask.getEpicId()), scheduleLock.writeLock());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return withLocks(super::getPrioritizedTasks, scheduleLock.readLock());
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return withLocks(() -> super.getPrioritizedTasks(from, to), scheduleLock.readLock());
+    }
+
+    private Lock epicLock(int epicId) {
+        return epicLocks[epicId & (EPIC_LOCK_STRIPES - 1)];
+    }
+
+    private static <T> T withLocks(Supplier<T> action, Lock... locks) {
+        int locked = 0;
+        try {
+            for (Lock lock : locks) {
+                lock.lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+import ru.practicum.model.TaskType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс задач по содержимому для поиска дубликатов при создании за O(1).
+ * Для задач и подзадач ключ — название, описание, время начала и длительность (для подзадач ещё и эпик),
+ * для эпиков — только название и описание, как и в проверках {@link InMemoryTaskManager}.
+ * Ключ запоминается по id в момент добавления, поэтому задачу можно удалить, даже если её уже изменили.
+ * Одинаковое содержимое может оказаться у нескольких задач (например, после изменения), поэтому по ключу
+ * хранятся все они: сама задача, если она одна, или массив задач по возрастанию id. find возвращает задачу
+ * с наименьшим id, как прежний линейный поиск, а удаление одной из них не теряет остальные.
+ * Как и {@link EntityStore}, по умолчанию индекс однопоточный; ConcurrentTaskManager берёт {@link #concurrent()}.
+ */
+class ContentIndex {
+    private record ContentKey(TaskType type, String title, String description, LocalDateTime startTime,
+                              Duration duration, int epicId) {
+    }
+
+    // Значение — Task или Task[] из нескольких задач; массивы не меняются после публикации
+    private final Map<ContentKey, Object> tasksByContent;
+    private final IntMap<ContentKey> keysById;
+
+    private ContentIndex(Map<ContentKey, Object> tasksByContent, IntMap<ContentKey> keysById) {
+        this.tasksByContent = tasksByContent;
+        this.keysById = keysById;
+    }
+
+    ContentIndex() {
+        this(new HashMap<>(), new IntObjectMap<>());
+    }
+
+    static ContentIndex concurrent() {
+        return new ContentIndex(new ConcurrentHashMap<>(), new EntityStore.ConcurrentIntMap<>());
+    }
+
+    public Task find(Task task) {
+        Object indexed = tasksByContent.get(keyOf(task));
+        return indexed instanceof Task[] ? ((Task[]) indexed)[0] : (Task) indexed;
+    }
+
+    public void add(Task task) {
+        remove(task.getId());
+        ContentKey key = keyOf(task);
+        keysById.put(task.getId(), key);
+        tasksByContent.merge(key, task, (indexed, added) -> with(indexed, (Task) added));
+    }
+
+    public void remove(int id) {
+        ContentKey key = keysById.remove(id);
+        if (key != null) {
+            tasksByContent.computeIfPresent(key, (k, indexed) -> without(indexed, id));
+        }
+    }
+
+    public void clear() {
+        tasksByContent.clear();
+        keysById.clear();
+    }
+
+    private static Object with(Object indexed, Task added) {
+        Task[] current = indexed instanceof Task[] ? (Task[]) indexed : new Task[] {(Task) indexed};
+        Task[] result = new Task[current.length + 1];
+        int position = 0;
+        while (position < current.length && current[position].getId() < added.getId()) {
+            position++;
+        }
+        System.arraycopy(current, 0, result, 0, position);
+        result[position] = added;
+        System.arraycopy(current, position, result, position + 1, current.length - position);
+        return result;
+    }
+
+    // null, если по ключу не осталось задач
+    private static Object without(Object indexed, int id) {
+        if (!(indexed instanceof Task[])) {
+            return ((Task) indexed).getId() == id ? null : indexed;
+        }
+        Task[] current = (Task[]) indexed;
+        Task[] result = new Task[current.length - 1];
+        int size = 0;
+        for (Task task : current) {
+            if (task.getId() != id) {
+                if (size == result.length) {
+                    return indexed;
+                }
+                result[size++] = task;
+            }
+        }
+        return result.length == 1 ? result[0] : result;
+    }
+
+    private static ContentKey keyOf(Task task) {
+        switch (task.getType()) {
+            case EPIC:
+                return new ContentKey(TaskType.EPIC, task.getTitle(), task.getDescription(), null, null, 0);
+            case SUBTASK:
+                return new ContentKey(TaskType.SUBTASK, task.getTitle(), task.getDescription(), task.getStartTime(),
+                        task.getDuration(), ((Subtask) task).getEpicId());
+            default:
+                return new ContentKey(TaskType.TASK, task.getTitle(), task.getDescription(), task.getStartTime(),
+                        task.getDuration(), 0);
+        }
+    }
+}
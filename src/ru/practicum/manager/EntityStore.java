@@ -0,0 +1,242 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Status;
+import ru.practicum.model.Task;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Хранилище задач одного типа: поиск по id через хеш-таблицу с ключами int плюс упорядоченный набор id для
+ * постраничного обхода. Страница читает только те элементы, которые в неё попали.
+ * Вторичный индекс по статусу обновляется при каждом put, поэтому выборка по статусу не обходит хранилище.
+ * Статус фиксируется в момент put: объект, изменённый без повторного put, в индексе не переезжает.
+ * Каждое изменение увеличивает версию хранилища; версия растёт уже после того, как изменение видно,
+ * так что прочитавший версию не увидит данных старше неё.
+ * В однопоточном хранилище наборы id — битовые карты (бит на id вместо узла дерева и Integer),
+ * в конкурентном — ConcurrentSkipListSet, чтобы чтения не ждали писателей.
+ */
+public class EntityStore<T extends Task> {
+    private final IntMap<T> byId;
+    private final IdSet orderedIds;
+    private final IdSet[] byStatus = new IdSet[Status.values().length];
+    private final AtomicLong version = new AtomicLong();
+
+    private EntityStore(IntMap<T> byId, Supplier<IdSet> idSetFactory) {
+        this.byId = byId;
+        this.orderedIds = idSetFactory.get();
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = idSetFactory.get();
+        }
+    }
+
+    public EntityStore() {
+        this(new IntObjectMap<>(), BitIdSet::new);
+    }
+
+    public static <T extends Task> EntityStore<T> concurrent() {
+        return new EntityStore<>(new ConcurrentIntMap<>(), ConcurrentIdSet::new);
+    }
+
+    public T get(int id) {
+        return byId.get(id);
+    }
+
+    public boolean containsKey(int id) {
+        return byId.containsKey(id);
+    }
+
+    public T put(int id, T task) {
+        T previous = byId.put(id, task);
+        if (previous == null) {
+            orderedIds.add(id);
+        }
+        reindexStatus(id, task);
+        version.incrementAndGet();
+        return previous;
+    }
+
+    public T remove(int id) {
+        T removed = byId.remove(id);
+        if (removed != null) {
+            orderedIds.remove(id);
+            reindexStatus(id, null);
+            version.incrementAndGet();
+        }
+        return removed;
+    }
+
+    public void clear() {
+        byId.clear();
+        orderedIds.clear();
+        for (IdSet bucket : byStatus) {
+            bucket.clear();
+        }
+        version.incrementAndGet();
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // Снимок задач по возрастанию id, в том же порядке, что и страницы
+    public List<T> values() {
+        return collect(orderedIds, -1, Integer.MAX_VALUE);
+    }
+
+    // Снимок id по возрастанию
+    public List<Integer> keySet() {
+        List<Integer> ids = new ArrayList<>(byId.size());
+        for (int id = orderedIds.next(0); id >= 0; id = orderedIds.next(id)) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    // До limit элементов с id строго больше afterId, по возрастанию id
+    public List<T> page(int afterId, int limit) {
+        return collect(orderedIds, afterId, limit);
+    }
+
+    // Задачи с данным статусом по возрастанию id
+    public List<T> withStatus(Status status) {
+        return collect(byStatus[status.ordinal()], 0, Integer.MAX_VALUE);
+    }
+
+    private List<T> collect(IdSet ids, int afterId, int limit) {
+        List<T> result = new ArrayList<>(Math.min(limit, byId.size()));
+        for (int id = ids.next(afterId); id >= 0 && result.size() < limit; id = ids.next(id)) {
+            T task = byId.get(id);
+            if (task != null) {
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    // Статусов всего три, поэтому id проще убрать из всех корзин, чем помнить, в какой он лежал:
+    // у эпика статус меняется на том же объекте, и прежнее значение к моменту put уже потеряно
+    private void reindexStatus(int id, T task) {
+        for (int i = 0; i < byStatus.length; i++) {
+            if (task != null && task.getStatus() != null && task.getStatus().ordinal() == i) {
+                byStatus[i].add(id);
+            } else {
+                byStatus[i].remove(id);
+            }
+        }
+    }
+
+    // Набор неотрицательных id; next возвращает наименьший id строго больше заданного или -1
+    private interface IdSet {
+        void add(int id);
+
+        void remove(int id);
+
+        void clear();
+
+        int next(int afterId);
+    }
+
+    private static class BitIdSet implements IdSet {
+        private final BitSet bits = new BitSet();
+
+        @Override
+        public void add(int id) {
+            bits.set(id);
+        }
+
+        @Override
+        public void remove(int id) {
+            bits.clear(id);
+        }
+
+        @Override
+        public void clear() {
+            bits.clear();
+        }
+
+        @Override
+        public int next(int afterId) {
+            if (afterId == Integer.MAX_VALUE) {
+                return -1;
+            }
+            return bits.nextSetBit(Math.max(afterId + 1, 0));
+        }
+    }
+
+    private static class ConcurrentIdSet implements IdSet {
+        private final ConcurrentSkipListSet<Integer> ids = new ConcurrentSkipListSet<>();
+
+        @Override
+        public void add(int id) {
+            ids.add(id);
+        }
+
+        @Override
+        public void remove(int id) {
+            ids.remove(id);
+        }
+
+        @Override
+        public void clear() {
+            ids.clear();
+        }
+
+        @Override
+        public int next(int afterId) {
+            Integer next = ids.higher(afterId);
+            return next != null ? next : -1;
+        }
+    }
+
+    // Конкурентному хранилищу нужны чтения без блокировок, поэтому там остаётся ConcurrentHashMap
+    static class ConcurrentIntMap<V> implements IntMap<V> {
+        private final Map<Integer, V> map = new ConcurrentHashMap<>();
+
+        @Override
+        public V get(int key) {
+            return map.get(key);
+        }
+
+        @Override
+        public boolean containsKey(int key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public V put(int key, V value) {
+            return map.put(key, value);
+        }
+
+        @Override
+        public V remove(int key) {
+            return map.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public Collection<V> values() {
+            return map.values();
+        }
+    }
+}
@@ -3,176 +3,365 @@ package ru.practicum.manager;
 import ru.practicum.model.*;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private static final String PUT = "PUT";
+    private static final String DELETE = "DELETE";
+    private static final String CLEAR = "CLEAR";
+    private static final String VIEW = "VIEW";
+    // Записи пакета обрамляются маркерами: при переигрывании пакет без BATCH_END отбрасывается целиком
+    private static final String BATCH_BEGIN = "BATCH_BEGIN";
+    private static final String BATCH_END = "BATCH_END";
 
     private final File file;
+    private final SnapshotFormat snapshotFormat;
+    private final JournalSettings journalSettings;
+    private final HistoryFile historyFile;
+    private GroupCommitWriter groupCommit;
+    private TaskJournal journal;
+    private boolean restoring;
+    // Внутри пакета отдельные изменения не пишутся: весь пакет сохраняется одним снимком,
+    // а в режиме журнала — одной группой записей, собранных в batchRecords
+    private boolean batching;
+    private List<String> batchRecords;
 
     public FileBackedTaskManager(File file) {
+        this(file, SnapshotFormat.CSV, null);
+    }
+
+    // Формат задаёт, как пишется снимок; читается файл в любом формате — он определяется по заголовку
+    public FileBackedTaskManager(File file, SnapshotFormat snapshotFormat) {
+        this(file, snapshotFormat, null);
+    }
+
+    // Режим журнала: изменения дописываются в file + ".journal", CSV-снимок пишется только при сжатии
+    public FileBackedTaskManager(File file, JournalSettings journalSettings) {
+        this(file, SnapshotFormat.CSV, journalSettings);
+    }
+
+    // journalSettings == null — снимок переписывается на каждое изменение
+    private FileBackedTaskManager(File file, SnapshotFormat snapshotFormat, JournalSettings journalSettings) {
         super();
         this.file = file;
+        this.snapshotFormat = snapshotFormat;
+        this.journalSettings = journalSettings;
+        // История пишется в свой файл из фонового потока, поэтому доступ к ней синхронизирован
+        this.historyManager = new SynchronizedHistoryManager(historyManager);
+        this.historyFile = new HistoryFile(file, this::getHistory);
         loadFromFile(file);
+        if (journalSettings != null) {
+            openJournal();
+        }
+    }
+
+    // Групповая фиксация: изменения копятся в памяти, а снимок переписывает фоновый поток раз в окно
+    public FileBackedTaskManager(File file, GroupCommitSettings groupCommitSettings) {
+        this(file, SnapshotFormat.CSV, null);
+        this.groupCommit = new GroupCommitWriter(groupCommitSettings, this::commitSnapshot);
     }
 
     @Override
-    public Task createTask(Task task) {
+    public synchronized Task createTask(Task task) {
         Task result = super.createTask(task);
-        save();
+        persistPut(result);
         return result;
     }
 
     @Override
-    public Task getTaskById(int id) {
+    public synchronized Task getTaskById(int id) {
         Task result = super.getTaskById(id);
-        save();
+        persistView(result);
         return result;
     }
 
     @Override
-    public void updateTask(Task task) {
+    public synchronized void updateTask(Task task) {
         super.updateTask(task);
-        save();
+        persistPut(tasks.get(task.getId()));
     }
 
     @Override
-    public boolean deleteTask(int id) {
+    public synchronized boolean deleteTask(int id) {
         boolean result = super.deleteTask(id);
-        save();
+        persistDelete(TaskType.TASK, id);
         return result;
     }
 
     @Override
-    public void deleteAllTasks() {
+    public synchronized void deleteAllTasks() {
         super.deleteAllTasks();
-        save();
+        persistClear(TaskType.TASK);
     }
 
     @Override
-    public Subtask createSubtask(Subtask subtask) {
+    public synchronized Subtask createSubtask(Subtask subtask) {
         Subtask result = super.createSubtask(subtask);
-        save();
+        persistPut(result);
         return result;
     }
 
     @Override
-    public Subtask getSubtaskById(int id) {
+    public synchronized Subtask getSubtaskById(int id) {
         Subtask result = super.getSubtaskById(id);
-        save();
+        persistView(result);
         return result;
     }
 
     @Override
-    public void deleteAllSubtasks() {
+    public synchronized void deleteAllSubtasks() {
         super.deleteAllSubtasks();
-        save();
+        persistClear(TaskType.SUBTASK);
     }
 
     @Override
-    public boolean removeSubtaskById(int id) {
+    public synchronized boolean removeSubtaskById(int id) {
         boolean result = super.removeSubtaskById(id);
-        save();
+        persistDelete(TaskType.SUBTASK, id);
         return result;
     }
 
     @Override
-    public boolean updateSubtask(Subtask updatedSubtask, int updateSubtaskId) {
+    public synchronized boolean updateSubtask(Subtask updatedSubtask, int updateSubtaskId) {
         boolean result = super.updateSubtask(updatedSubtask, updateSubtaskId);
-        save();
+        persistPut(subtasks.get(updateSubtaskId));
         return result;
     }
 
     @Override
-    public Epic createEpic(Epic epic) {
+    public synchronized Epic createEpic(Epic epic) {
         Epic result = super.createEpic(epic);
-        save();
+        persistPut(result);
         return result;
     }
 
     @Override
-    public Epic getEpicById(int id) {
+    public synchronized Epic getEpicById(int id) {
         Epic result = super.getEpicById(id);
-        save();
+        persistView(result);
         return result;
     }
 
     @Override
-    public boolean updateEpic(Epic epic) {
+    public synchronized boolean updateEpic(Epic epic) {
         boolean result = super.updateEpic(epic);
-        save();
+        persistPut(epics.get(epic.getId()));
         return result;
     }
 
     @Override
-    public boolean deleteEpic(int id) {
+    public synchronized boolean deleteEpic(int id) {
         boolean result = super.deleteEpic(id);
-        save();
+        persistDelete(TaskType.EPIC, id);
         return result;
     }
 
     @Override
-    public void deleteAllEpics() {
+    public synchronized void deleteAllEpics() {
         super.deleteAllEpics();
-        save();
+        persistClear(TaskType.EPIC);
     }
 
-    public void save() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
-            writer.write("id,type,title,status,description,startTime,duration,epic\n");
+    // Изменения идут под монитором менеджера (в режиме групповой фиксации — из нескольких потоков), поэтому
+    // чтения берут его же: иначе читатель застал бы хеш-таблицу хранилища или индекс расписания посреди
+    // перестройки
+    @Override
+    public synchronized List<Task> getAllTasks() {
+        return super.getAllTasks();
+    }
 
-            getAllTasks().stream()
-                    .map(Task::toCSVStr)
-                    .forEach(line -> {
-                        try {
-                            writer.write(line + "\n");
-                        } catch (IOException e) {
-                            throw new UncheckedIOException(e);
-                        }
-                    });
+    @Override
+    public synchronized List<Task> getTasksPage(int afterId, int limit) {
+        return super.getTasksPage(afterId, limit);
+    }
 
-            getAllSubtasks().stream()
-                    .map(Subtask::toCSVStr)
-                    .forEach(line -> {
-                        try {
-                            writer.write(line + "\n");
-                        } catch (IOException e) {
-                            throw new UncheckedIOException(e);
-                        }
-                    });
+    @Override
+    public synchronized List<Task> getTasksByStatus(Status status) {
+        return super.getTasksByStatus(status);
+    }
 
-            getAllEpics().stream()
-                    .map(Epic::toCSVStr)
-                    .forEach(line -> {
-                        try {
-                            writer.write(line + "\n");
-                        } catch (IOException e) {
-                            throw new UncheckedIOException(e);
-                        }
-                    });
-
-            List<Task> history = getHistory();
-            if (!history.isEmpty()) {
-                writer.write("\nHISTORY:\n");
-                history.stream()
-                        .map(Task::getId)
-                        .map(String::valueOf)
-                        .forEach(line -> {
-                            try {
-                                writer.write(line + "\n");
-                            } catch (IOException e) {
-                                throw new UncheckedIOException(e);
-                            }
-                        });
+    @Override
+    public synchronized List<Epic> getAllEpics() {
+        return super.getAllEpics();
+    }
+
+    @Override
+    public synchronized List<Epic> getEpicsPage(int afterId, int limit) {
+        return super.getEpicsPage(afterId, limit);
+    }
+
+    @Override
+    public synchronized List<Epic> getEpicsByStatus(Status status) {
+        return super.getEpicsByStatus(status);
+    }
+
+    @Override
+    public synchronized List<Subtask> getAllSubtasks() {
+        return super.getAllSubtasks();
+    }
+
+    @Override
+    public synchronized List<Subtask> getSubtasksPage(int afterId, int limit) {
+        return super.getSubtasksPage(afterId, limit);
+    }
+
+    @Override
+    public synchronized List<Subtask> getSubtasksByStatus(Status status) {
+        return super.getSubtasksByStatus(status);
+    }
+
+    @Override
+    public synchronized List<Subtask> getSubtasksByEpicId(int epicId) {
+        return super.getSubtasksByEpicId(epicId);
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks() {
+        return super.getPrioritizedTasks();
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return super.getPrioritizedTasks(from, to);
+    }
+
+    @Override
+    public synchronized BatchResult applyBatch(List<BatchOperation> operations) {
+        BatchResult result;
+        List<String> records = new ArrayList<>();
+        batching = true;
+        batchRecords = records;
+        try {
+            result = super.applyBatch(operations);
+        } finally {
+            batching = false;
+            batchRecords = null;
+        }
+        if (result.isApplied()) {
+            if (journal != null) {
+                appendBatch(records);
+            } else {
+                persistSnapshot();
+            }
+        }
+        return result;
+    }
+
+    // Сворачивает журнал в CSV-снимок. Снимок пишется во временный файл и атомарно подменяет основной,
+    // поэтому сбой на середине сжатия не теряет данных: журнал очищается только после переименования.
+    // Весь путь от снимка до очистки журнала идёт под монитором: изменение, пришедшее между ними,
+    // не попало бы в снимок, а его запись стёрла бы очистка журнала.
+    public synchronized void compact() {
+        if (journal == null) {
+            save();
+            return;
+        }
+        historyFile.flush();
+        File tempFile = new File(file.getPath() + ".tmp");
+        writeSnapshot(tempFile);
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось заменить файл снимка", e);
+        }
+        journal.reset();
+    }
+
+    // Принудительно сбрасывает накопленные записи журнала на диск
+    public synchronized void sync() {
+        if (journal != null) {
+            journal.sync();
+        }
+    }
+
+    // Future, который завершится, когда все уже сделанные изменения окажутся на диске.
+    // Без групповой фиксации запись синхронная, и future сразу завершён.
+    public synchronized CompletableFuture<Void> whenPersisted() {
+        return groupCommit != null ? groupCommit.latest() : CompletableFuture.completedFuture(null);
+    }
+
+    // Записывает отложенные изменения истории просмотров, не дожидаясь фонового потока
+    public void flushHistory() {
+        historyFile.flush();
+    }
+
+    // Не synchronized целиком: фоновому потоку групповой фиксации для последней записи нужен монитор
+    // менеджера, поэтому его дожидаются вне монитора. Изменения, пришедшие после отключения фонового потока,
+    // пишутся синхронно, а журнал сворачивается и закрывается уже под монитором.
+    @Override
+    public void close() {
+        GroupCommitWriter writer;
+        synchronized (this) {
+            writer = groupCommit;
+            groupCommit = null;
+        }
+        if (writer != null) {
+            writer.close();
+        }
+        synchronized (this) {
+            // Последняя пачка фонового потока могла лечь поверх более нового синхронного снимка
+            if (writer != null) {
+                save();
+            }
+            if (journal != null) {
+                compact();
+                journal.close();
+                journal = null;
+            }
+        }
+        historyFile.close();
+    }
+
+    public synchronized void save() {
+        writeSnapshot(file);
+    }
+
+    // Выгрузка в CSV независимо от формата снимка
+    public synchronized void exportCsv(File target) {
+        writeBuffer(target, encodeCsv());
+    }
+
+    private void writeSnapshot(File target) {
+        writeBuffer(target, encodeSnapshot());
+    }
+
+    private ByteBuffer encodeSnapshot() {
+        if (snapshotFormat == SnapshotFormat.BINARY) {
+            List<Task> entities = new ArrayList<>(getAllTasks());
+            entities.addAll(getAllSubtasks());
+            entities.addAll(getAllEpics());
+            return BinarySnapshot.encode(entities);
+        }
+        return encodeCsv();
+    }
+
+    private ByteBuffer encodeCsv() {
+        StringBuilder csv = new StringBuilder("id,type,title,status,description,startTime,duration,epic\n");
+        getAllTasks().forEach(task -> csv.append(task.toCSVStr()).append('\n'));
+        getAllSubtasks().forEach(subtask -> csv.append(subtask.toCSVStr()).append('\n'));
+        getAllEpics().forEach(epic -> csv.append(epic.toCSVStr()).append('\n'));
+        return ByteBuffer.wrap(csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeBuffer(File target, ByteBuffer data) {
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
             }
         } catch (IOException e) {
             throw new ManagerSaveException("Не удалось сохранить данные в файл", e);
@@ -184,10 +373,25 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
             return;
         }
 
+        if (BinarySnapshot.isBinary(file)) {
+            restoring = true;
+            try {
+                restoreAll(BinarySnapshot.read(file, this));
+                restoreHistory(HistoryFile.readIds(HistoryFile.forDataFile(file)));
+            } finally {
+                restoring = false;
+            }
+            return;
+        }
+
+        restoring = true;
         try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
             String line;
             boolean isHeaderRead = false;
             List<Integer> historyIds = new ArrayList<>();
+            // Все записи сначала читаются, а в хранилище попадают одним проходом через restoreAll:
+            // подзадачи в файле идут раньше эпиков, а пересечения проверяются сразу по всему файлу
+            List<Task> loaded = new ArrayList<>();
 
             while ((line = reader.readLine()) != null) {
                 if (!isHeaderRead) {
@@ -199,9 +403,8 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                     continue;
                 }
 
-                System.out.println("Текущая строка: " + line);
-
-                if (line.contains("HISTORY:")) {
+                // Секция истории в самом снимке осталась от прежнего формата: теперь история хранится отдельно
+                if (line.startsWith("HISTORY:")) {
                     while ((line = reader.readLine()) != null && !line.trim().isEmpty()) {
                         try {
                             int id = Integer.parseInt(line.trim());
@@ -213,34 +416,43 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
                     continue;
                 }
 
-                String[] parts = line.split(",");
-                if (parts.length < 5) {
-                    System.err.println("Строка не соответствует формату: " + line);
-                    continue;
-                }
-
-                switch (TaskType.valueOf(parts[1])) {
-                    case TASK:
-                        addTaskFromCSV(parts);
-                        break;
-                    case SUBTASK:
-                        addSubtaskFromCSV(parts);
-                        break;
-                    case EPIC:
-                        addEpicFromCSV(parts);
-                        break;
-                    default:
-                        System.err.println("Неизвестный тип задачи: " + parts[1]);
+                Task task = fromCSV(line);
+                if (task != null) {
+                    loaded.add(task);
                 }
             }
 
-            restoreHistory(historyIds);
+            restoreAll(loaded);
+            File savedHistory = HistoryFile.forDataFile(file);
+            restoreHistory(savedHistory.exists() ? HistoryFile.readIds(savedHistory) : historyIds);
         } catch (IOException e) {
             throw new ManagerSaveException("Не удалось прочитать данные из файла", e);
+        } finally {
+            restoring = false;
+        }
+    }
+
+    private Task fromCSV(String line) {
+        String[] parts = line.split(",", -1);
+        if (parts.length < 7) {
+            System.err.println("Строка не соответствует формату: " + line);
+            return null;
+        }
+
+        switch (TaskType.valueOf(parts[1])) {
+            case TASK:
+                return taskFromCSV(parts);
+            case SUBTASK:
+                return subtaskFromCSV(parts);
+            case EPIC:
+                return epicFromCSV(parts);
+            default:
+                System.err.println("Неизвестный тип задачи: " + parts[1]);
+                return null;
         }
     }
 
-    private void addTaskFromCSV(String[] parts) {
+    private Task taskFromCSV(String[] parts) {
         int id = Integer.parseInt(parts[0]);
         String title = parts[2];
         Status status = Status.valueOf(parts[3]);
@@ -250,10 +462,10 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
 
         Task task = new Task(title, description, this, status, startTime, duration);
         task.setId(id);
-        createTask(task);
+        return task;
     }
 
-    private void addSubtaskFromCSV(String[] parts) {
+    private Subtask subtaskFromCSV(String[] parts) {
         int id = Integer.parseInt(parts[0]);
         String title = parts[2];
         Status status = Status.valueOf(parts[3]);
@@ -264,10 +476,10 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
 
         Subtask subtask = new Subtask(title, description, this, epicId, status, startTime, duration);
         subtask.setId(id);
-        createSubtask(subtask);
+        return subtask;
     }
 
-    private void addEpicFromCSV(String[] parts) {
+    private Epic epicFromCSV(String[] parts) {
         int id = Integer.parseInt(parts[0]);
         String title = parts[2];
         Status status = Status.valueOf(parts[3]);
@@ -279,7 +491,177 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         epic.setId(id);
         epic.setStartTime(startTime);
         epic.setDuration(duration);
-        createEpic(epic);
+        return epic;
+    }
+
+    private void openJournal() {
+        journal = new TaskJournal(new File(file.getPath() + ".journal"), journalSettings);
+        List<String> records = journal.readRecords();
+
+        restoring = true;
+        try {
+            replayAll(records);
+            // Задачи из журнала появились только сейчас — историю по ним восстанавливаем повторно
+            if (!records.isEmpty()) {
+                restoreHistory(HistoryFile.readIds(HistoryFile.forDataFile(file)));
+            }
+        } finally {
+            restoring = false;
+        }
+
+        journal.open();
+        // Сразу сворачиваем переигранный журнал: заодно отбрасывается недописанная при сбое последняя запись
+        if (!records.isEmpty()) {
+            compact();
+        }
+    }
+
+    private void replayAll(List<String> records) {
+        for (int i = 0; i < records.size(); i++) {
+            if (!records.get(i).equals(BATCH_BEGIN)) {
+                replay(records.get(i));
+                continue;
+            }
+            int end = records.subList(i, records.size()).indexOf(BATCH_END);
+            if (end < 0) {
+                // Пакет оборвался при сбое: его изменения не применяются ни частично, ни целиком
+                System.err.println("Недописанный пакет в конце журнала отброшен");
+                return;
+            }
+            records.subList(i + 1, i + end).forEach(this::replay);
+            i += end;
+        }
+    }
+
+    private void replay(String record) {
+        int separator = record.indexOf(',');
+        if (separator < 0) {
+            System.err.println("Некорректная запись в журнале: " + record);
+            return;
+        }
+        String operation = record.substring(0, separator);
+        String payload = record.substring(separator + 1);
+
+        try {
+            switch (operation) {
+                case PUT -> {
+                    Task task = fromCSV(payload);
+                    if (task != null) {
+                        restore(task);
+                    }
+                }
+                case DELETE -> {
+                    String[] parts = payload.split(",");
+                    int id = Integer.parseInt(parts[1]);
+                    switch (TaskType.valueOf(parts[0])) {
+                        case TASK -> super.deleteTask(id);
+                        case SUBTASK -> super.removeSubtaskById(id);
+                        case EPIC -> super.deleteEpic(id);
+                    }
+                }
+                case CLEAR -> {
+                    switch (TaskType.valueOf(payload)) {
+                        case TASK -> super.deleteAllTasks();
+                        case SUBTASK -> super.deleteAllSubtasks();
+                        case EPIC -> super.deleteAllEpics();
+                    }
+                }
+                // Записи просмотров остались в журналах прежнего формата
+                case VIEW -> restoreHistory(List.of(Integer.parseInt(payload)));
+                default -> System.err.println("Неизвестная операция в журнале: " + record);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Некорректная запись в журнале: " + record);
+        }
+    }
+
+    private void persistPut(Task task) {
+        if (journal == null || task == null) {
+            persistSnapshot();
+            return;
+        }
+        appendRecord(PUT + "," + task.toCSVStr());
+    }
+
+    private void persistDelete(TaskType type, int id) {
+        if (journal == null) {
+            persistSnapshot();
+            return;
+        }
+        appendRecord(DELETE + "," + type + "," + id);
+    }
+
+    private void persistClear(TaskType type) {
+        if (journal == null) {
+            persistSnapshot();
+            return;
+        }
+        appendRecord(CLEAR + "," + type);
+    }
+
+    // Просмотр меняет только историю: ни снимок, ни журнал при этом не трогаются
+    private void persistView(Task task) {
+        if (task != null && !restoring) {
+            historyFile.markDirty();
+        }
+    }
+
+    private void persistSnapshot() {
+        if (restoring || batching || journal != null) {
+            return;
+        }
+        if (groupCommit != null) {
+            groupCommit.submit();
+        } else {
+            save();
+        }
+    }
+
+    // Состояние снимается под монитором менеджера, а на диск пишется уже без него,
+    // чтобы изменения не ждали ввода-вывода
+    private void commitSnapshot() {
+        ByteBuffer snapshot;
+        synchronized (this) {
+            snapshot = encodeSnapshot();
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        writeBuffer(tempFile, snapshot);
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось заменить файл снимка", e);
+        }
+    }
+
+    private void appendRecord(String record) {
+        if (restoring) {
+            return;
+        }
+        if (batching) {
+            batchRecords.add(record);
+            return;
+        }
+        journal.append(record);
+        compactIfNeeded();
+    }
+
+    private void appendBatch(List<String> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        List<String> unit = new ArrayList<>(records.size() + 2);
+        unit.add(BATCH_BEGIN);
+        unit.addAll(records);
+        unit.add(BATCH_END);
+        journal.appendAll(unit);
+        compactIfNeeded();
+    }
+
+    private void compactIfNeeded() {
+        if (journal.getRecordCount() >= journalSettings.getCompactionThreshold()) {
+            compact();
+        }
     }
 
     private void restoreHistory(List<Integer> historyIds) {
@@ -0,0 +1,34 @@
+package ru.practicum.manager;
+
+public final class GroupCommitSettings {
+    private static final long DEFAULT_WINDOW_MILLIS = 5;
+    private static final int DEFAULT_MAX_BATCH = 256;
+
+    private final long windowMillis;
+    private final int maxBatch;
+
+    private GroupCommitSettings(long windowMillis, int maxBatch) {
+        if (windowMillis <= 0 || maxBatch <= 0) {
+            throw new IllegalArgumentException("Параметры группового сохранения должны быть положительными");
+        }
+        this.windowMillis = windowMillis;
+        this.maxBatch = maxBatch;
+    }
+
+    public static GroupCommitSettings defaults() {
+        return new GroupCommitSettings(DEFAULT_WINDOW_MILLIS, DEFAULT_MAX_BATCH);
+    }
+
+    // Снимок пишется через windowMillis после первого изменения в пачке или сразу, как только их набралось maxBatch
+    public static GroupCommitSettings of(long windowMillis, int maxBatch) {
+        return new GroupCommitSettings(windowMillis, maxBatch);
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+}
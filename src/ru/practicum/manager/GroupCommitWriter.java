@@ -0,0 +1,105 @@
+package ru.practicum.manager;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновая запись снимка с групповой фиксацией: изменения, пришедшие за одно окно
+ * {@link GroupCommitSettings#getWindowMillis()}, сохраняются одной перезаписью файла.
+ * Каждое изменение получает future, который завершается, когда снимок с ним оказался на диске.
+ */
+class GroupCommitWriter implements Closeable {
+    private final GroupCommitSettings settings;
+    private final Runnable commitAction;
+    private final Thread thread;
+
+    private CompletableFuture<Void> pending;
+    private CompletableFuture<Void> latest = CompletableFuture.completedFuture(null);
+    private int pendingCount;
+    private long batchStartNanos;
+    private boolean closed;
+
+    GroupCommitWriter(GroupCommitSettings settings, Runnable commitAction) {
+        this.settings = settings;
+        this.commitAction = commitAction;
+        this.thread = new Thread(this::run, "task-group-commit");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    synchronized CompletableFuture<Void> submit() {
+        if (closed) {
+            throw new ManagerSaveException("Запись снимка уже остановлена");
+        }
+        if (pending == null) {
+            pending = new CompletableFuture<>();
+            latest = pending;
+            batchStartNanos = System.nanoTime();
+            notifyAll();
+        }
+        pendingCount++;
+        if (pendingCount >= settings.getMaxBatch()) {
+            notifyAll();
+        }
+        return pending;
+    }
+
+    // Future последнего принятого изменения: завершён, если всё уже на диске
+    synchronized CompletableFuture<Void> latest() {
+        return latest;
+    }
+
+    // Дожидается записи всех изменений, закрывая пачку без ожидания конца окна
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            CompletableFuture<Void> batch;
+            synchronized (this) {
+                try {
+                    while (pending == null && !closed) {
+                        wait();
+                    }
+                    if (pending == null) {
+                        return;
+                    }
+                    long deadline = batchStartNanos + TimeUnit.MILLISECONDS.toNanos(settings.getWindowMillis());
+                    long remaining;
+                    while (!closed && pendingCount < settings.getMaxBatch()
+                            && (remaining = deadline - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    closed = true;
+                    if (pending == null) {
+                        return;
+                    }
+                }
+                batch = pending;
+                pending = null;
+                pendingCount = 0;
+            }
+            // Изменения, пришедшие во время записи, попадут уже в следующую пачку
+            try {
+                commitAction.run();
+                batch.complete(null);
+            } catch (RuntimeException e) {
+                System.err.println(e.getMessage());
+                batch.completeExceptionally(e);
+            }
+        }
+    }
+}
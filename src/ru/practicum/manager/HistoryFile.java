@@ -0,0 +1,135 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Task;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * История просмотров в отдельном файле рядом со снимком (file + ".history"), по одному id в строке.
+ * Просмотр задачи только помечает историю изменённой; на диск её выписывает общий фоновый поток
+ * не раньше чем через {@link #FLUSH_DELAY_MILLIS}, так что чтение задачи не делает ввода-вывода.
+ * При сбое теряются лишь просмотры за последний интервал — сами задачи хранятся в снимке и журнале.
+ */
+class HistoryFile implements Closeable {
+    static final long FLUSH_DELAY_MILLIS = 200;
+    static final long MAX_RETRY_DELAY_MILLIS = 10_000;
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-history-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File file;
+    private final Supplier<List<Task>> historySource;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile boolean closed;
+    // Пауза до повтора после неудачной записи; удваивается с каждой неудачей подряд
+    private long retryDelayMillis = FLUSH_DELAY_MILLIS;
+
+    HistoryFile(File dataFile, Supplier<List<Task>> historySource) {
+        this.file = forDataFile(dataFile);
+        this.historySource = historySource;
+    }
+
+    static File forDataFile(File dataFile) {
+        return new File(dataFile.getPath() + ".history");
+    }
+
+    static List<Integer> readIds(File historyFile) {
+        List<Integer> ids = new ArrayList<>();
+        if (!historyFile.exists()) {
+            return ids;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(historyFile, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ids.add(Integer.parseInt(line.trim()));
+                } catch (NumberFormatException e) {
+                    System.err.println("Некорректный ID в истории: " + line);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось прочитать историю просмотров", e);
+        }
+        return ids;
+    }
+
+    // Первый просмотр после записи планирует следующую; остальные до неё ничего не стоят
+    void markDirty() {
+        if (!closed && dirty.compareAndSet(false, true)) {
+            FLUSHER.schedule(this::flushQuietly, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void flush() {
+        // Флаг снимается до чтения истории: просмотр во время записи запланирует ещё одну
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile, StandardCharsets.UTF_8))) {
+            for (Task task : historySource.get()) {
+                writer.write(String.valueOf(task.getId()));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            retryLater();
+            throw new ManagerSaveException("Не удалось сохранить историю просмотров", e);
+        }
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            retryLater();
+            throw new ManagerSaveException("Не удалось заменить файл истории", e);
+        }
+        retryDelayMillis = FLUSH_DELAY_MILLIS;
+    }
+
+    // История остаётся изменённой, поэтому markDirty новую запись уже не запланирует — повтор планируется здесь
+    private void retryLater() {
+        dirty.set(true);
+        if (!closed) {
+            retryDelayMillis = Math.min(retryDelayMillis * 2, MAX_RETRY_DELAY_MILLIS);
+            FLUSHER.schedule(this::flushQuietly, retryDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        flush();
+    }
+
+    private void flushQuietly() {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } catch (ManagerSaveException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+}
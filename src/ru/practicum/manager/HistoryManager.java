@@ -11,4 +11,14 @@ public interface HistoryManager {
     void remove(int id);
 
     List<Task> getHistory();
+
+    // Последние limit просмотров в том же порядке, что и getHistory(): от старых к новым
+    List<Task> getHistory(int limit);
+
+    int size();
+
+    int getCapacity();
+
+    // Приблизительный объём памяти, который занимает сама история, без учёта задач в ней
+    long estimateMemoryUsage();
 }
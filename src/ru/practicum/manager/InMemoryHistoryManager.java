@@ -3,11 +3,17 @@ package ru.practicum.manager;
 import ru.practicum.model.Task;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 public class InMemoryHistoryManager implements HistoryManager {
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    // Оценка для 64-битной JVM со сжатыми ссылками: узел списка (24 байта) и пара ячеек int[]/Object[]
+    // в IntObjectMap с учётом заполнения таблицы от 3/8 до 3/4 (~16).
+    // Сами задачи не учитываются — они принадлежат хранилищу менеджера.
+    static final long BYTES_PER_ENTRY = 40;
+
     private static class Node {
         private Task task;
         private Node prev;
@@ -20,19 +26,37 @@ public class InMemoryHistoryManager implements HistoryManager {
 
     private Node head;
     private Node tail;
-    private Map<Integer, Node> history = new HashMap<>();
+    private final IntObjectMap<Node> history = new IntObjectMap<>();
+    private final int capacity;
+
+    public InMemoryHistoryManager() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным: " + capacity);
+        }
+        this.capacity = capacity;
+    }
 
     @Override
     public void add(Task task) {
-        Integer taskId = task.getId();
+        int taskId = task.getId();
 
-        if (history.containsKey(taskId)) {
-            removeNode(history.get(taskId));
+        Node existing = history.get(taskId);
+        if (existing != null) {
+            removeNode(existing);
         }
 
         Node newNode = new Node(task);
         linkLast(newNode);
         history.put(taskId, newNode);
+
+        // Переполненная история вытесняет самый давний просмотр
+        if (history.size() > capacity) {
+            removeNode(head);
+        }
     }
 
     private void removeNode(Node node) {
@@ -92,4 +116,34 @@ public class InMemoryHistoryManager implements HistoryManager {
 
         return result;
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<Task> getHistory(int limit) {
+        int count = Math.min(Math.max(limit, 0), history.size());
+        Task[] result = new Task[count];
+        Node current = tail;
+
+        // Идём с хвоста, чтобы не обходить весь список ради последних элементов
+        for (int i = count - 1; i >= 0; i--) {
+            result[i] = current.task;
+            current = current.prev;
+        }
+
+        return Arrays.asList(result);
+    }
+
+    @Override
+    public int size() {
+        return history.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long estimateMemoryUsage() {
+        return history.size() * BYTES_PER_ENTRY;
+    }
+}
@@ -4,22 +4,26 @@ import ru.practicum.model.Epic;
 import ru.practicum.model.Status;
 import ru.practicum.model.Subtask;
 import ru.practicum.model.Task;
+import ru.practicum.model.TaskType;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
 import java.util.TreeSet;
 
 public class InMemoryTaskManager implements TaskManager {
     protected static int taskCount = 1;
 
-    protected Map<Integer, Task> tasks = new HashMap<>();
-    protected Map<Integer, Epic> epics = new HashMap<>();
-    protected Map<Integer, Subtask> subtasks = new HashMap<>();
+    protected EntityStore<Task> tasks = new EntityStore<>();
+    protected EntityStore<Epic> epics = new EntityStore<>();
+    protected EntityStore<Subtask> subtasks = new EntityStore<>();
 
     protected HistoryManager historyManager;
 
@@ -40,6 +44,10 @@ public class InMemoryTaskManager implements TaskManager {
         return result != 0 ? result : Integer.compare(task1.getId(), task2.getId());
     });
 
+    private final IntervalIndex scheduleIndex = new IntervalIndex();
+    protected ContentIndex contentIndex = new ContentIndex();
+    private final TaskEventBus eventBus = new TaskEventBus();
+
     public InMemoryTaskManager() {
 
         this.historyManager = Managers.getDefaultHistory();
@@ -62,6 +70,11 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
+    @Override
+    public List<Task> getHistory(int limit) {
+        return historyManager.getHistory(limit);
+    }
+
     @Override
     public <T extends Task> void update(T task) {
         if (task instanceof Task) {
@@ -78,7 +91,17 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public List<Task> getAllTasks() {
 
-        return new ArrayList<>(tasks.values());
+        return tasks.values();
+    }
+
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        return tasks.page(afterId, limit);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return tasks.withStatus(status);
     }
 
     @Override
@@ -92,17 +115,9 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Task createTask(Task task) {
-        Optional<Task> existingTask = tasks.values().stream()
-                .filter(existing ->
-                        Objects.equals(existing.getDescription(), task.getDescription()) &&
-                                Objects.equals(existing.getTitle(), task.getTitle()) &&
-                                Objects.equals(existing.getStartTime(), task.getStartTime()) &&
-                                Objects.equals(existing.getDuration(), task.getDuration())
-                )
-                .findFirst();
-
-        if (existingTask.isPresent()) {
-            return existingTask.get();
+        Task existingTask = contentIndex.find(task);
+        if (existingTask != null) {
+            return existingTask;
         }
         Task conflictingTask = findConflictingTask(task);
         if (conflictingTask != null) {
@@ -118,17 +133,21 @@ public class InMemoryTaskManager implements TaskManager {
         task.setId(id);
         addPrioritizedTask(task);
         tasks.put(id, task);
+        contentIndex.add(task);
+        eventBus.publish(TaskEvent.Kind.CREATED, task);
         return task;
     }
 
     @Override
     public void updateTask(Task task) {
         if (tasks.containsKey(task.getId())) {
-            Task oldTask = getTaskById(task.getId());
+            Task oldTask = tasks.get(task.getId());
 
             removeTaskFromPrioritized(oldTask);
             addPrioritizedTask(task);
             tasks.put(task.getId(), task);
+            contentIndex.add(task);
+            eventBus.publish(TaskEvent.Kind.UPDATED, task);
         }
     }
 
@@ -137,6 +156,8 @@ public class InMemoryTaskManager implements TaskManager {
         Task removed = tasks.remove(id);
         if (removed != null) {
             removeTaskFromPrioritized(removed);
+            contentIndex.remove(id);
+            eventBus.publish(TaskEvent.Kind.DELETED, removed);
             return true;
         }
         return false;
@@ -149,15 +170,27 @@ public class InMemoryTaskManager implements TaskManager {
         taskList.stream()
                 .forEach(task -> {
                     removeTaskFromPrioritized(task);
+                    contentIndex.remove(task.getId());
                 });
 
         tasks.clear();
+        taskList.forEach(task -> eventBus.publish(TaskEvent.Kind.DELETED, task));
     }
 
     @Override
     public List<Epic> getAllEpics() {
 
-        return new ArrayList<>(epics.values());
+        return epics.values();
+    }
+
+    @Override
+    public List<Epic> getEpicsPage(int afterId, int limit) {
+        return epics.page(afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return epics.withStatus(status);
     }
 
     @Override
@@ -171,105 +204,91 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Epic createEpic(Epic epic) {
-        Epic existingEpic = epics.values().stream()
-                .filter(existing ->
-                        Objects.equals(existing.getDescription(), epic.getDescription()) &&
-                                Objects.equals(existing.getTitle(), epic.getTitle())
-                )
-                .findFirst()
-                .orElse(null);
-
+        Task existingEpic = contentIndex.find(epic);
         if (existingEpic != null) {
-            return existingEpic;
+            return (Epic) existingEpic;
         }
         int id = getCurrentTaskCount();
         epic.setId(id);
         epics.put(id, epic);
+        contentIndex.add(epic);
+        eventBus.publish(TaskEvent.Kind.CREATED, epic);
         return epic;
     }
 
     @Override
     public boolean updateEpic(Epic epic) {
-        if (!epics.containsKey(epic.getId())) {
+        Epic stored = epics.get(epic.getId());
+        if (stored == null) {
             return false;
         }
 
-        List<Subtask> subtasksInEpic = epic.getSubtasks();
-
-        if (subtasksInEpic.isEmpty()) {
-            epic.setStatus(Status.NEW);
-            epics.put(epic.getId(), epic);
-            return true;
-        }
-
-        int subtaskCount = subtasksInEpic.size();
-        int subtaskCountNew = 0;
-        int subtaskCountDone = 0;
-
-        for (Subtask subtask : subtasksInEpic) {
-            Status subtaskStatus = subtask.getStatus();
-
-            if (subtaskStatus == Status.NEW) {
-                subtaskCountNew++;
-            } else if (subtaskStatus == Status.DONE) {
-                subtaskCountDone++;
-            }
-        }
-
-        Status newStatus;
-        if (subtaskCountNew == subtaskCount) {
-            newStatus = Status.NEW;
-        } else if (subtaskCountDone == subtaskCount) {
-            newStatus = Status.DONE;
-        } else {
-            newStatus = Status.IN_PROGRESS;
-        }
-
-        epic.setStatus(newStatus);
+        Status oldStatus = stored.getStatus();
+        epic.setStatus(epic.calculateStatus());
         epic.setStartTime(epic.getStartTime());
         epic.setDuration(epic.getDuration());
         epics.put(epic.getId(), epic);
+        contentIndex.add(epic);
+        // Сюда же приходят пересчёты после изменений подзадач: время эпика могло поменяться, а смена
+        // статуса отмечается отдельным событием
+        eventBus.publish(TaskEvent.Kind.UPDATED, epic);
+        if (oldStatus != epic.getStatus()) {
+            eventBus.publish(TaskEvent.Kind.STATUS_CHANGED, epic);
+        }
         return true;
     }
 
     @Override
     public boolean deleteEpic(int id) {
         Epic epic = epics.remove(id);
-
-        if (epic != null) {
+        if (epic == null) {
             return false;
         }
-
-        if (epic != null && epic.getSubtasks() != null) {
-
-            epic.getSubtasks()
-                    .stream()
-                    .filter(Objects::nonNull) // Фильтруем null значения
-                    .forEach(subtask -> {
-                        subtasks.remove(subtask.getId());
-                        removeTaskFromPrioritized(subtask);
-                    });
+        contentIndex.remove(id);
+        // Подзадачи без эпика не существуют: они уходят из хранилища, расписания и индекса вместе с ним
+        for (Subtask subtask : epic.getSubtasks()) {
+            subtasks.remove(subtask.getId());
+            removeTaskFromPrioritized(subtask);
+            contentIndex.remove(subtask.getId());
+            eventBus.publish(TaskEvent.Kind.DELETED, subtask);
         }
+        eventBus.publish(TaskEvent.Kind.DELETED, epic);
         return true;
     }
 
     @Override
     public void deleteAllEpics() {
-        getAllEpics().forEach(epic -> {
+        List<Epic> removedEpics = getAllEpics();
+        List<Subtask> removedSubtasks = getAllSubtasks();
+        removedEpics.forEach(epic -> {
             epic.getSubtasks().forEach(subtask -> {
                 subtasks.remove(subtask.getId());
                 removeTaskFromPrioritized(subtask);
             });
+            contentIndex.remove(epic.getId());
         });
+        subtasks.keySet().forEach(contentIndex::remove);
 
         epics.clear();
         subtasks.clear();
+        removedSubtasks.forEach(subtask -> eventBus.publish(TaskEvent.Kind.DELETED, subtask));
+        removedEpics.forEach(epic -> eventBus.publish(TaskEvent.Kind.DELETED, epic));
     }
 
     @Override
     public List<Subtask> getAllSubtasks() {
 
-        return new ArrayList<>(subtasks.values());
+        return subtasks.values();
+    }
+
+    @Override
+    public List<Subtask> getSubtasksPage(int afterId, int limit) {
+        return subtasks.page(afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return subtasks.withStatus(status);
     }
 
     @Override
@@ -289,19 +308,9 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Subtask createSubtask(Subtask newSubtask) {
-        Subtask existingSubtask = subtasks.values().stream()
-                .filter(subtask ->
-                        Objects.equals(subtask.getTitle(), newSubtask.getTitle()) &&
-                                Objects.equals(subtask.getDescription(), newSubtask.getDescription()) &&
-                                subtask.getEpicId() == newSubtask.getEpicId() &&
-                                Objects.equals(subtask.getStartTime(), newSubtask.getStartTime()) &&
-                                Objects.equals(subtask.getDuration(), newSubtask.getDuration())
-                )
-                .findFirst()
-                .orElse(null);
-
+        Task existingSubtask = contentIndex.find(newSubtask);
         if (existingSubtask != null) {
-            return existingSubtask;
+            return (Subtask) existingSubtask;
         }
         Task conflictingTask = findConflictingTask(newSubtask);
         if (conflictingTask != null) {
@@ -317,6 +326,8 @@ public class InMemoryTaskManager implements TaskManager {
         newSubtask.setId(id);
         addPrioritizedTask(newSubtask);
         subtasks.put(id, newSubtask);
+        contentIndex.add(newSubtask);
+        eventBus.publish(TaskEvent.Kind.CREATED, newSubtask);
 
         int epicId = newSubtask.getEpicId();
         Epic epic = epics.get(epicId);
@@ -339,6 +350,8 @@ public class InMemoryTaskManager implements TaskManager {
                 .filter(Objects::nonNull)
                 .forEach(subtask -> {
                     removeTaskFromPrioritized(subtask);
+                    contentIndex.remove(subtask.getId());
+                    eventBus.publish(TaskEvent.Kind.DELETED, subtask);
                     int epicId = subtask.getEpicId();
                     Epic epic = epics.get(epicId);
 
@@ -355,6 +368,8 @@ public class InMemoryTaskManager implements TaskManager {
     public boolean removeSubtaskById(int id) {
         Subtask subtask = subtasks.remove(id);
         removeTaskFromPrioritized(subtask);
+        contentIndex.remove(id);
+        eventBus.publish(TaskEvent.Kind.DELETED, subtask);
 
         if (subtask != null) {
             int epicId = subtask.getEpicId();
@@ -388,12 +403,14 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Эпик с ID " + epicId + " не найден");
         }
 
-        epic.getSubtasks().removeIf(subtask -> subtask.getId() == updateSubtaskId);
+        epic.removeSubtaskById(updateSubtaskId);
 
         updatedSubtask.setId(updateSubtaskId);
 
         updatePrioritizedTask(updatedSubtask);
         subtasks.put(updateSubtaskId, updatedSubtask);
+        contentIndex.add(updatedSubtask);
+        eventBus.publish(TaskEvent.Kind.UPDATED, updatedSubtask);
         epic.addSubtask(updatedSubtask);
         updateEpic(epic);
         return true;
@@ -404,14 +421,307 @@ public class InMemoryTaskManager implements TaskManager {
         return new ArrayList<>(prioritizedTasks);
     }
 
-    private boolean isTimeConflict(Task task1, Task task2) {
-        if (task1.getStartTime() == null || task2.getStartTime() == null) {
-            return false;
+    // Задачи, которые пересекаются с промежутком [from, to]; null с любой стороны означает открытую границу.
+    // Начавшиеся внутри промежутка берутся срезом отсортированного множества, а начавшиеся раньше и ещё
+    // не закончившиеся — из индекса интервалов, поэтому стоимость зависит от размера ответа, а не хранилища
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец промежутка раньше его начала");
+        }
+        List<Task> result = new ArrayList<>();
+        NavigableSet<Task> startedInside = prioritizedTasks;
+        if (from != null) {
+            scheduleIndex.collectOverlapping(from, from, result);
+            result.removeIf(task -> !task.getStartTime().isBefore(from));
+            startedInside = startedInside.tailSet(scheduleProbe(from, Integer.MIN_VALUE), true);
+        }
+        if (to != null) {
+            startedInside = startedInside.headSet(scheduleProbe(to, Integer.MAX_VALUE), true);
+        } else {
+            // Задачи без времени начала лежат в конце множества и в промежуток не попадают
+            startedInside = startedInside.headSet(scheduleProbe(LocalDateTime.MAX, Integer.MAX_VALUE), true);
         }
-        LocalDateTime end1 = task1.getEndTime();
-        LocalDateTime end2 = task2.getEndTime();
+        result.addAll(startedInside);
+        return result;
+    }
+
+    // Версии только растут: любое изменение хранилища увеличивает версию своего типа, а общая версия —
+    // их сумма. По ним HTTP-слой отвечает 304 на повторный запрос неизменившегося списка
+    @Override
+    public long getVersion() {
+        return tasks.version() + epics.version() + subtasks.version();
+    }
 
-        return !end1.isBefore(task2.getStartTime()) && !end2.isBefore(task1.getStartTime());
+    @Override
+    public long getVersion(TaskType type) {
+        return switch (type) {
+            case TASK -> tasks.version();
+            case EPIC -> epics.version();
+            case SUBTASK -> subtasks.version();
+        };
+    }
+
+    // Подписчики узнают о созданиях, изменениях и удалениях задач всех типов, а также о смене статуса эпика.
+    // Восстановление с диска событий не порождает
+    @Override
+    public TaskEventBus getEventBus() {
+        return eventBus;
+    }
+
+    // Пакет сначала целиком проверяется без изменений: существование задач и эпиков, повторы id и пересечения
+    // по времени — одним проходом по отсортированным интервалам пакета и одним запросом к индексу на интервал.
+    // Если хоть одна операция не проходит, не применяется ничего. Иначе выполняются удаления, изменения
+    // и создания — в этом порядке, чтобы освобождённое время можно было занять в том же пакете.
+    @Override
+    public BatchResult applyBatch(List<BatchOperation> operations) {
+        String[] errors = validateBatch(operations);
+        for (String error : errors) {
+            if (error != null) {
+                return BatchResult.rejected(errors);
+            }
+        }
+
+        int[] ids = new int[operations.size()];
+        for (int i = 0; i < ids.length; i++) {
+            BatchOperation operation = operations.get(i);
+            if (operation.getKind() == BatchOperation.Kind.DELETE) {
+                switch (operation.getType()) {
+                    case TASK -> deleteTask(operation.getId());
+                    case SUBTASK -> removeSubtaskById(operation.getId());
+                    case EPIC -> deleteEpic(operation.getId());
+                }
+                ids[i] = operation.getId();
+            } else if (operation.getKind() == BatchOperation.Kind.UPDATE
+                    && operation.getType() != TaskType.EPIC) {
+                // Старые интервалы изменяемых задач убираются заранее: иначе задачи, обменявшиеся временем,
+                // пересеклись бы с ещё не изменёнными соседями
+                removeTaskFromPrioritized(scheduleIndex.get(operation.getId()));
+            }
+        }
+        for (int i = 0; i < ids.length; i++) {
+            BatchOperation operation = operations.get(i);
+            if (operation.getKind() == BatchOperation.Kind.UPDATE) {
+                Task task = operation.getTask();
+                switch (operation.getType()) {
+                    case TASK -> updateTask(task);
+                    case SUBTASK -> updateSubtask((Subtask) task, task.getId());
+                    case EPIC -> updateEpic((Epic) task);
+                }
+                ids[i] = task.getId();
+            }
+        }
+        for (int i = 0; i < ids.length; i++) {
+            BatchOperation operation = operations.get(i);
+            if (operation.getKind() == BatchOperation.Kind.CREATE) {
+                Task task = operation.getTask();
+                ids[i] = switch (operation.getType()) {
+                    case TASK -> createTask(task).getId();
+                    case SUBTASK -> createSubtask((Subtask) task).getId();
+                    case EPIC -> createEpic((Epic) task).getId();
+                };
+            }
+        }
+        return BatchResult.applied(ids);
+    }
+
+    private String[] validateBatch(List<BatchOperation> operations) {
+        String[] errors = new String[operations.size()];
+        Set<Integer> touchedIds = new HashSet<>();
+        Set<Integer> deletedEpicIds = new HashSet<>();
+        for (BatchOperation operation : operations) {
+            if (operation != null && operation.getKind() == BatchOperation.Kind.DELETE
+                    && operation.getType() == TaskType.EPIC) {
+                deletedEpicIds.add(operation.getId());
+            }
+        }
+
+        List<Integer> scheduled = new ArrayList<>();
+        for (int i = 0; i < errors.length; i++) {
+            BatchOperation operation = operations.get(i);
+            if (operation == null || operation.getKind() == null || operation.getType() == null) {
+                errors[i] = "Не указаны операция или тип задачи";
+                continue;
+            }
+            Task task = operation.getTask();
+            if (operation.getKind() != BatchOperation.Kind.DELETE
+                    && (task == null || task.getType() != operation.getType())) {
+                errors[i] = "Не передана задача типа " + operation.getType();
+                continue;
+            }
+            if (operation.getKind() != BatchOperation.Kind.CREATE) {
+                int id = operation.getId();
+                if (!containsTask(operation.getType(), id)) {
+                    errors[i] = "Задача №" + id + " не найдена";
+                    continue;
+                }
+                if (!touchedIds.add(id)) {
+                    errors[i] = "Задача №" + id + " уже изменяется в этом пакете";
+                    continue;
+                }
+            }
+            if (task instanceof Subtask) {
+                int epicId = ((Subtask) task).getEpicId();
+                if (!epics.containsKey(epicId) || deletedEpicIds.contains(epicId)) {
+                    errors[i] = "Эпик №" + epicId + " не найден";
+                    continue;
+                }
+            }
+            // Создание дубликата вернёт уже существующую задачу, так что её время не занимается заново
+            boolean takesTime = operation.getKind() == BatchOperation.Kind.UPDATE
+                    || operation.getKind() == BatchOperation.Kind.CREATE && contentIndex.find(task) == null;
+            if (takesTime && operation.getType() != TaskType.EPIC
+                    && task.getStartTime() != null && task.getEndTime() != null) {
+                scheduled.add(i);
+            }
+        }
+
+        // Изменяемые и удаляемые задачи освобождают своё прежнее время
+        for (int i : scheduled) {
+            Task task = operations.get(i).getTask();
+            Task conflictingTask = scheduleIndex.findOverlapping(task.getStartTime(), task.getEndTime(),
+                    touchedIds::contains);
+            if (conflictingTask != null) {
+                errors[i] = "Пересекается по времени с задачей №" + conflictingTask.getId();
+            }
+        }
+
+        scheduled.sort(Comparator.comparing((Integer i) -> operations.get(i).getTask().getStartTime()));
+        Integer latestEnding = null;
+        for (int i : scheduled) {
+            Task task = operations.get(i).getTask();
+            if (latestEnding != null) {
+                Task previous = operations.get(latestEnding).getTask();
+                if (!previous.getEndTime().isBefore(task.getStartTime()) && errors[i] == null) {
+                    errors[i] = "Пересекается по времени с операцией №" + (latestEnding + 1) + " этого пакета";
+                }
+                if (!task.getEndTime().isAfter(previous.getEndTime())) {
+                    continue;
+                }
+            }
+            latestEnding = i;
+        }
+        return errors;
+    }
+
+    private boolean containsTask(TaskType type, int id) {
+        return switch (type) {
+            case TASK -> tasks.containsKey(id);
+            case SUBTASK -> subtasks.containsKey(id);
+            case EPIC -> epics.containsKey(id);
+        };
+    }
+
+    // Кладёт задачу в хранилище с уже известным id, без проверок на дубликаты и пересечения.
+    // Используется при восстановлении состояния с диска; запись с тем же id заменяется.
+    protected void restore(Task task) {
+        putRestored(task);
+        if (task.getType() == TaskType.SUBTASK) {
+            Subtask subtask = (Subtask) task;
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic != null) {
+                epic.addSubtask(subtask);
+            }
+        }
+    }
+
+    // Массовое восстановление при загрузке файла. Пересечения проверяются один раз сортировкой с проходом
+    // до того, как что-либо попадёт в хранилище, а подзадачи привязываются к эпику одной пачкой на эпик.
+    protected void restoreAll(List<Task> loaded) {
+        Task[] conflict = findScheduleConflict(loaded);
+        if (conflict != null) {
+            throw new ManagerSaveException("Задачи №" + conflict[0].getId() + " и №" + conflict[1].getId()
+                    + " пересекаются по времени выполнения");
+        }
+
+        Map<Integer, List<Subtask>> subtasksByEpic = new HashMap<>();
+        for (Task task : loaded) {
+            if (task.getType() != TaskType.SUBTASK) {
+                restore(task);
+            }
+        }
+        for (Task task : loaded) {
+            if (task.getType() == TaskType.SUBTASK) {
+                Subtask subtask = (Subtask) task;
+                putRestored(subtask);
+                subtasksByEpic.computeIfAbsent(subtask.getEpicId(), epicId -> new ArrayList<>()).add(subtask);
+            }
+        }
+        subtasksByEpic.forEach((epicId, epicSubtasks) -> {
+            Epic epic = epics.get(epicId);
+            if (epic != null) {
+                epic.addSubtasks(epicSubtasks);
+            }
+        });
+    }
+
+    private void putRestored(Task task) {
+        int id = task.getId();
+        if (taskCount < id) {
+            taskCount = id;
+        }
+        contentIndex.add(task);
+
+        switch (task.getType()) {
+            case TASK -> {
+                removeTaskFromPrioritized(tasks.put(id, task));
+                addPrioritizedTask(task);
+            }
+            case SUBTASK -> {
+                Subtask subtask = (Subtask) task;
+                Subtask previous = subtasks.put(id, subtask);
+                if (previous != null) {
+                    removeTaskFromPrioritized(previous);
+                    Epic previousEpic = epics.get(previous.getEpicId());
+                    if (previousEpic != null) {
+                        previousEpic.removeSubtask(previous);
+                    }
+                }
+                addPrioritizedTask(subtask);
+            }
+            case EPIC -> {
+                Epic epic = (Epic) task;
+                Epic previous = epics.put(id, epic);
+                if (previous != null) {
+                    previous.getSubtasks().forEach(epic::addSubtask);
+                }
+            }
+        }
+    }
+
+    // Интервалы сортируются по началу; пересечение есть, если очередная задача начинается
+    // не позже самого позднего конца среди предыдущих. Эпики не проверяются — их время берётся из подзадач.
+    // Конец задачи не хранится, а вычисляется, поэтому для каждой задачи он считается один раз
+    private static Task[] findScheduleConflict(List<Task> loaded) {
+        List<Task> scheduled = new ArrayList<>();
+        for (Task task : loaded) {
+            if (task.getType() != TaskType.EPIC && task.getStartTime() != null && task.getDuration() != null) {
+                scheduled.add(task);
+            }
+        }
+        scheduled.sort(Comparator.comparing(Task::getStartTime).thenComparingInt(Task::getId));
+
+        Task latestEnding = null;
+        LocalDateTime latestEnd = null;
+        for (Task task : scheduled) {
+            if (latestEnd != null && !latestEnd.isBefore(task.getStartTime())) {
+                return new Task[]{latestEnding, task};
+            }
+            LocalDateTime end = task.getEndTime();
+            if (latestEnd == null || end.isAfter(latestEnd)) {
+                latestEnding = task;
+                latestEnd = end;
+            }
+        }
+        return null;
+    }
+
+    // Ключ для срезов prioritizedTasks: компаратор смотрит только на начало и id
+    private static Task scheduleProbe(LocalDateTime startTime, int id) {
+        Task probe = new Task();
+        probe.setStartTime(startTime);
+        probe.setId(id);
+        return probe;
     }
 
     private Task findConflictingTask(Task newTask) {
@@ -419,21 +729,22 @@ public class InMemoryTaskManager implements TaskManager {
             return null;
         }
 
-        return getPrioritizedTasks()
-                .stream()
-                .filter(task -> isTimeConflict(task, newTask))
-                .findFirst()
-                .orElse(null);
+        return scheduleIndex.findOverlapping(newTask.getStartTime(), newTask.getEndTime());
     }
 
     private void addPrioritizedTask(Task task) {
         if (task.getStartTime() != null) {
             prioritizedTasks.add(task);
+            scheduleIndex.add(task);
         }
     }
 
     private void removeTaskFromPrioritized(Task task) {
+        if (task == null) {
+            return;
+        }
         prioritizedTasks.remove(task);
+        scheduleIndex.remove(task.getId());
     }
 
     private void updatePrioritizedTask(Task task) {
@@ -441,17 +752,14 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Задача не может быть null");
         }
 
-        TreeSet<Task> tempTasks = new TreeSet<>(prioritizedTasks);
-
-        tempTasks.stream()
-                .filter(existingTask ->
-                        existingTask.getTitle().equals(task.getTitle()) &&
-                                existingTask.getDescription().equals(task.getDescription())
-                )
-                .forEach(this::removeTaskFromPrioritized);
+        Task previousTask = scheduleIndex.get(task.getId());
+        removeTaskFromPrioritized(previousTask);
 
         Task conflictingTask = findConflictingTask(task);
         if (conflictingTask != null) {
+            if (previousTask != null) {
+                addPrioritizedTask(previousTask);
+            }
             String conflictMessage = String.format(
                     "Подзадача пересекается по времени с существующей задачей: %s (%s - %s)",
                     conflictingTask.getTitle(),
@@ -0,0 +1,23 @@
+package ru.practicum.manager;
+
+import java.util.Collection;
+
+/**
+ * Отображение с ключами int без упаковки в Integer. Основная реализация — {@link IntObjectMap};
+ * конкурентное хранилище подставляет обёртку над ConcurrentHashMap.
+ */
+interface IntMap<V> {
+    V get(int key);
+
+    boolean containsKey(int key);
+
+    V put(int key, V value);
+
+    V remove(int key);
+
+    void clear();
+
+    int size();
+
+    Collection<V> values();
+}
@@ -0,0 +1,213 @@
+package ru.practicum.manager;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Хеш-таблица с ключами int и открытой адресацией (линейное пробирование). Ключи лежат в int[], значения —
+ * в параллельном Object[], поэтому поиск не упаковывает id в Integer, а запись не создаёт узлов:
+ * на элемент уходит две ячейки массивов вместо записи HashMap и объекта Integer.
+ * Пустая ячейка — та, где значение null, поэтому null хранить нельзя. При удалении хвост цепочки
+ * сдвигается назад, и «надгробий» в таблице не остаётся. Не потокобезопасна.
+ */
+class IntObjectMap<V> implements IntMap<V> {
+    private static final int MIN_CAPACITY = 16;
+    // Заполнение не выше 3/4: с перемешанным хешем цепочки пробирования остаются короткими
+    private static final int MAX_LOAD_NUMERATOR = 3;
+    private static final int MAX_LOAD_DENOMINATOR = 4;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    IntObjectMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(int key) {
+        int index = indexOf(key);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("IntObjectMap не хранит null");
+        }
+        int index = slot(key);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(values.length * 2);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V remove(int key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V removed = (V) values[index];
+        shiftBack(index);
+        size--;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        // Разросшаяся таблица после очистки не держит память
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Представление значений в порядке ячеек таблицы; меняется вместе с картой
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int indexOf(int key) {
+        int index = slot(key);
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    // id выдаются подряд, поэтому без перемешивания соседние ключи выстраивались бы в сплошные цепочки
+    private int slot(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    // Удаление без надгробий: элементы за освободившейся ячейкой, чья «домашняя» ячейка не лежит
+    // строго между ними и дырой, переезжают в дыру
+    private void shiftBack(int hole) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            if (values[index] == null) {
+                break;
+            }
+            int home = slot(keys[index]);
+            boolean staysInPlace = hole <= index ? hole < home && home <= index : hole < home || home <= index;
+            if (!staysInPlace) {
+                keys[hole] = keys[index];
+                values[hole] = values[index];
+                hole = index;
+            }
+        }
+        values[hole] = null;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = slot(oldKeys[i]);
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) ((long) capacity * MAX_LOAD_NUMERATOR / MAX_LOAD_DENOMINATOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long required = (long) expectedSize * MAX_LOAD_DENOMINATOR / MAX_LOAD_NUMERATOR + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < required) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) values[next];
+            next = advance(next + 1);
+            return value;
+        }
+
+        private int advance(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+    }
+}
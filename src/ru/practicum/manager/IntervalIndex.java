@@ -0,0 +1,238 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Task;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Индекс временных интервалов задач: AVL-дерево по (startTime, id), где каждый узел хранит
+ * максимальное время окончания в своём поддереве. Поиск пересечения, вставка и удаление — O(log n).
+ * Интервалы считаются закрытыми, как в {@link InMemoryTaskManager}: задачи, у которых конец одной
+ * совпадает с началом другой, пересекаются.
+ */
+class IntervalIndex {
+    private static class Node {
+        private final Task task;
+        private final int id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private LocalDateTime maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        Node(Task task) {
+            this.task = task;
+            this.id = task.getId();
+            this.start = task.getStartTime();
+            this.end = task.getEndTime();
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+    // Узел запоминается по id, чтобы удалить его даже если у задачи уже поменяли время
+    private final IntObjectMap<Node> nodesById = new IntObjectMap<>();
+
+    public void add(Task task) {
+        // Конец вычисляется из начала и длительности, поэтому считается один раз — в узле
+        Node node = new Node(task);
+        if (node.start == null || node.end == null) {
+            return;
+        }
+        remove(node.id);
+        root = insert(root, node);
+        nodesById.put(node.id, node);
+    }
+
+    public void remove(int id) {
+        Node node = nodesById.remove(id);
+        if (node != null) {
+            root = delete(root, node.start, node.id);
+        }
+    }
+
+    public Task get(int id) {
+        Node node = nodesById.get(id);
+        return node != null ? node.task : null;
+    }
+
+    public Task findOverlapping(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            return null;
+        }
+        Node current = root;
+        while (current != null) {
+            if (!current.end.isBefore(start) && !end.isBefore(current.start)) {
+                return current.task;
+            }
+            if (current.left != null && !current.left.maxEnd.isBefore(start)) {
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return null;
+    }
+
+    // Как findOverlapping, но пропускает задачи, для которых ignored вернул true. Поддеревья, целиком
+    // лежащие раньше start (по maxEnd) или позже end (по началу), не обходятся
+    public Task findOverlapping(LocalDateTime start, LocalDateTime end, IntPredicate ignored) {
+        if (start == null || end == null) {
+            return null;
+        }
+        return findOverlapping(root, start, end, ignored);
+    }
+
+    // Все задачи, пересекающие [start, end], в порядке начала. Обходятся только поддеревья, которые могут
+    // содержать пересечение, так что стоимость — O(log n + k) для k найденных задач
+    public void collectOverlapping(LocalDateTime start, LocalDateTime end, List<Task> result) {
+        collectOverlapping(root, start, end, result);
+    }
+
+    public int size() {
+        return nodesById.size();
+    }
+
+    public void clear() {
+        root = null;
+        nodesById.clear();
+    }
+
+    private static Task findOverlapping(Node node, LocalDateTime start, LocalDateTime end, IntPredicate ignored) {
+        if (node == null || node.maxEnd.isBefore(start)) {
+            return null;
+        }
+        Task found = findOverlapping(node.left, start, end, ignored);
+        if (found != null) {
+            return found;
+        }
+        if (end.isBefore(node.start)) {
+            return null;
+        }
+        if (!node.end.isBefore(start) && !ignored.test(node.id)) {
+            return node.task;
+        }
+        return findOverlapping(node.right, start, end, ignored);
+    }
+
+    private static void collectOverlapping(Node node, LocalDateTime start, LocalDateTime end, List<Task> result) {
+        if (node == null || node.maxEnd.isBefore(start)) {
+            return;
+        }
+        collectOverlapping(node.left, start, end, result);
+        if (end.isBefore(node.start)) {
+            return;
+        }
+        if (!node.end.isBefore(start)) {
+            result.add(node.task);
+        }
+        collectOverlapping(node.right, start, end, result);
+    }
+
+    private static int compare(LocalDateTime start1, int id1, LocalDateTime start2, int id2) {
+        int result = start1.compareTo(start2);
+        return result != 0 ? result : Integer.compare(id1, id2);
+    }
+
+    private static Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        if (compare(newNode.start, newNode.id, node.start, node.id) < 0) {
+            node.left = insert(node.left, newNode);
+        } else {
+            node.right = insert(node.right, newNode);
+        }
+        return balance(node);
+    }
+
+    private static Node delete(Node node, LocalDateTime start, int id) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, id, node.start, node.id);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, id);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, id);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        return balance(node);
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void refresh(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        LocalDateTime maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(maxEnd)) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static Node balance(Node node) {
+        refresh(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        refresh(node);
+        refresh(pivot);
+        return pivot;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        refresh(node);
+        refresh(pivot);
+        return pivot;
+    }
+}
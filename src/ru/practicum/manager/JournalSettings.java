@@ -0,0 +1,62 @@
+package ru.practicum.manager;
+
+public final class JournalSettings {
+    private static final int DEFAULT_GROUP_SIZE = 32;
+    private static final long DEFAULT_SYNC_INTERVAL_MILLIS = 100;
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+
+    private final JournalSyncPolicy syncPolicy;
+    private final int groupSize;
+    private final long syncIntervalMillis;
+    private final int compactionThreshold;
+
+    private JournalSettings(JournalSyncPolicy syncPolicy, int groupSize, long syncIntervalMillis,
+                            int compactionThreshold) {
+        if (groupSize <= 0 || syncIntervalMillis <= 0 || compactionThreshold <= 0) {
+            throw new IllegalArgumentException("Параметры журнала должны быть положительными");
+        }
+        this.syncPolicy = syncPolicy;
+        this.groupSize = groupSize;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    // fsync после каждой записи
+    public static JournalSettings perOperation() {
+        return new JournalSettings(JournalSyncPolicy.PER_OPERATION, 1, DEFAULT_SYNC_INTERVAL_MILLIS,
+                DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    // fsync после каждых groupSize записей
+    public static JournalSettings grouped(int groupSize) {
+        return new JournalSettings(JournalSyncPolicy.GROUPED, groupSize, DEFAULT_SYNC_INTERVAL_MILLIS,
+                DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    // fsync фоновым потоком раз в syncIntervalMillis
+    public static JournalSettings periodic(long syncIntervalMillis) {
+        return new JournalSettings(JournalSyncPolicy.PERIODIC, DEFAULT_GROUP_SIZE, syncIntervalMillis,
+                DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    // Количество записей в журнале, после которого он сворачивается в CSV-снимок
+    public JournalSettings withCompactionThreshold(int compactionThreshold) {
+        return new JournalSettings(syncPolicy, groupSize, syncIntervalMillis, compactionThreshold);
+    }
+
+    public JournalSyncPolicy getSyncPolicy() {
+        return syncPolicy;
+    }
+
+    public int getGroupSize() {
+        return groupSize;
+    }
+
+    public long getSyncIntervalMillis() {
+        return syncIntervalMillis;
+    }
+
+    public int getCompactionThreshold() {
+        return compactionThreshold;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.manager;
+
+public enum JournalSyncPolicy {
+    PER_OPERATION,
+    GROUPED,
+    PERIODIC
+}
@@ -11,12 +11,34 @@ public final class Managers {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
     public static FileBackedTaskManager getFileBackedManager(File file) {
         return new FileBackedTaskManager(file);
     }
 
+    public static FileBackedTaskManager getFileBackedManager(File file, SnapshotFormat snapshotFormat) {
+        return new FileBackedTaskManager(file, snapshotFormat);
+    }
+
+    public static FileBackedTaskManager getJournaledManager(File file, JournalSettings journalSettings) {
+        return new FileBackedTaskManager(file, journalSettings);
+    }
+
+    public static MappedTaskManager getMappedManager(File file) {
+        return new MappedTaskManager(file);
+    }
+
+    // Размер истории можно задать системным свойством kanban.history.capacity
     public static HistoryManager getDefaultHistory() {
 
-        return new InMemoryHistoryManager();
+        return getDefaultHistory(Integer.getInteger("kanban.history.capacity",
+                InMemoryHistoryManager.DEFAULT_CAPACITY));
+    }
+
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
     }
 }
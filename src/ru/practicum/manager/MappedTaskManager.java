@@ -0,0 +1,141 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Epic;
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Менеджер поверх {@link MappedTaskStore}: каждое изменение перезаписывает только запись затронутой задачи
+ * (и её эпика) в её слоте, а при запуске записи читаются из отображённого файла без разбора текста.
+ * История просмотров не сохраняется. Класс закрыт для наследования: конструктор загружает записи через
+ * restoreAll, и переопределение увидело бы недостроенный объект.
+ */
+public final class MappedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private final MappedTaskStore store;
+
+    public MappedTaskManager(File file) {
+        super();
+        this.store = new MappedTaskStore(file);
+        try {
+            restoreAll(store.readAll(this));
+        } catch (RuntimeException e) {
+            store.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized Task createTask(Task task) {
+        Task result = super.createTask(task);
+        store.write(result);
+        return result;
+    }
+
+    @Override
+    public synchronized void updateTask(Task task) {
+        super.updateTask(task);
+        persist(tasks.get(task.getId()));
+    }
+
+    @Override
+    public synchronized boolean deleteTask(int id) {
+        boolean result = super.deleteTask(id);
+        store.delete(id);
+        return result;
+    }
+
+    @Override
+    public synchronized void deleteAllTasks() {
+        List<Integer> ids = new ArrayList<>(tasks.keySet());
+        super.deleteAllTasks();
+        ids.forEach(store::delete);
+    }
+
+    @Override
+    public synchronized Subtask createSubtask(Subtask subtask) {
+        Subtask result = super.createSubtask(subtask);
+        store.write(result);
+        return result;
+    }
+
+    @Override
+    public synchronized void deleteAllSubtasks() {
+        List<Integer> ids = new ArrayList<>(subtasks.keySet());
+        super.deleteAllSubtasks();
+        ids.forEach(store::delete);
+    }
+
+    @Override
+    public synchronized boolean removeSubtaskById(int id) {
+        boolean result = super.removeSubtaskById(id);
+        store.delete(id);
+        return result;
+    }
+
+    @Override
+    public synchronized boolean updateSubtask(Subtask updatedSubtask, int updateSubtaskId) {
+        boolean result = super.updateSubtask(updatedSubtask, updateSubtaskId);
+        persist(subtasks.get(updateSubtaskId));
+        return result;
+    }
+
+    @Override
+    public synchronized Epic createEpic(Epic epic) {
+        Epic result = super.createEpic(epic);
+        store.write(result);
+        return result;
+    }
+
+    // Через updateEpic проходят и все изменения подзадач, так что запись эпика остаётся актуальной
+    @Override
+    public synchronized boolean updateEpic(Epic epic) {
+        boolean result = super.updateEpic(epic);
+        persist(epics.get(epic.getId()));
+        return result;
+    }
+
+    @Override
+    public synchronized boolean deleteEpic(int id) {
+        Epic epic = epics.get(id);
+        boolean result = super.deleteEpic(id);
+        if (result) {
+            epic.getSubtasks().forEach(subtask -> store.delete(subtask.getId()));
+            store.delete(id);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void deleteAllEpics() {
+        List<Integer> ids = new ArrayList<>(epics.keySet());
+        ids.addAll(subtasks.keySet());
+        super.deleteAllEpics();
+        ids.forEach(store::delete);
+    }
+
+    // Записи затронутых задач и так перезаписываются на месте, пакету нужен только общий монитор
+    @Override
+    public synchronized BatchResult applyBatch(List<BatchOperation> operations) {
+        return super.applyBatch(operations);
+    }
+
+    // Сбрасывает изменённые страницы отображения на диск
+    public synchronized void sync() {
+        store.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        store.close();
+    }
+
+    private void persist(Task task) {
+        if (task != null) {
+            store.write(task);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Epic;
+import ru.practicum.model.Status;
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+import ru.practicum.model.TaskType;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Хранилище задач в отображённых в память файлах. Основной файл — заголовок и слоты фиксированной
+ * длины SLOT_SIZE, слот задачи с id лежит по смещению HEADER_SIZE + id * SLOT_SIZE, поэтому
+ * перезапись по id — прямой доступ без поиска. Читаются записи только целиком при открытии: поиск по id
+ * обслуживают хранилища менеджера в куче. Строки хранятся в отдельной куче file + ".strings",
+ * запись ссылается на них смещением и длиной. Куча только растёт: старые версии строк после изменения
+ * задачи остаются в ней мусором.
+ * <p>
+ * В слоте две копии записи. Новая версия пишется в свободную копию, признак LIVE ставится ей последним
+ * и только потом снимается со старой, поэтому при падении процесса посреди записи при открытии читается
+ * либо старая, либо новая версия целиком, а не их смесь. Если LIVE остался на обеих, побеждает копия
+ * с большим поколением. От потери питания это не защищает: порядок сброса страниц на диск не задан,
+ * пока не вызван {@link #force()}.
+ * <p>
+ * Каждое отображение ограничено 2 ГБ, т.е. id меньше ~16 млн и кучей строк до 2 ГБ.
+ */
+class MappedTaskStore implements Closeable {
+    static final int MAGIC = 0x4B4D5453;
+    // Версия 2: две копии записи в слоте. Файлы версии 1 не читаются
+    static final short VERSION = 2;
+
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 64;
+    static final int SLOT_SIZE = 2 * RECORD_SIZE;
+
+    // Заголовок: MAGIC (int), VERSION (short), резерв (short), число слотов (int), конец кучи (long)
+    private static final int SLOT_COUNT_OFFSET = 8;
+    private static final int HEAP_END_OFFSET = 16;
+
+    // Запись: признак (byte), тип (byte), статус (byte), резерв (byte), id (int), id эпика (int),
+    // начало в секундах UTC (long), длительность в минутах (long),
+    // заголовок — смещение (long) и длина (int), описание — смещение (long) и длина (int), поколение (int)
+    private static final byte EMPTY = 0;
+    private static final byte LIVE = 1;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int GENERATION_OFFSET = 52;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private static final int INITIAL_RECORDS_SIZE = HEADER_SIZE + 1024 * SLOT_SIZE;
+    private static final int INITIAL_HEAP_SIZE = 64 * 1024;
+
+    private final FileChannel recordsChannel;
+    private final FileChannel heapChannel;
+    private MappedByteBuffer records;
+    private MappedByteBuffer heap;
+    private int slotCount;
+    private long heapEnd;
+
+    MappedTaskStore(File file) {
+        boolean created = !file.exists() || file.length() == 0;
+        FileChannel openedRecords = null;
+        FileChannel openedHeap = null;
+        try {
+            openedRecords = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            openedHeap = FileChannel.open(new File(file.getPath() + ".strings").toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            records = map(openedRecords, Math.max(openedRecords.size(), INITIAL_RECORDS_SIZE));
+            heap = map(openedHeap, Math.max(openedHeap.size(), INITIAL_HEAP_SIZE));
+            if (created) {
+                records.putInt(0, MAGIC).putShort(4, VERSION)
+                        .putInt(SLOT_COUNT_OFFSET, 0).putLong(HEAP_END_OFFSET, 0);
+            } else {
+                checkHeader(file);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Каналы, открытые до ошибки, иначе остались бы открытыми до сборки мусора
+            closeQuietly(openedRecords, e);
+            closeQuietly(openedHeap, e);
+            throw e instanceof RuntimeException runtime ? runtime
+                    : new ManagerSaveException("Не удалось открыть хранилище задач", e);
+        }
+        recordsChannel = openedRecords;
+        heapChannel = openedHeap;
+        slotCount = records.getInt(SLOT_COUNT_OFFSET);
+        heapEnd = records.getLong(HEAP_END_OFFSET);
+    }
+
+    private void checkHeader(File file) {
+        if (records.getInt(0) != MAGIC) {
+            throw new ManagerSaveException("Файл не является хранилищем задач: " + file);
+        }
+        short version = records.getShort(4);
+        if (version != VERSION) {
+            throw new ManagerSaveException("Неподдерживаемая версия хранилища: " + version);
+        }
+        int slots = records.getInt(SLOT_COUNT_OFFSET);
+        long heapSize = records.getLong(HEAP_END_OFFSET);
+        if (slots < 0 || HEADER_SIZE + (long) slots * SLOT_SIZE > records.capacity()
+                || heapSize < 0 || heapSize > heap.capacity()) {
+            throw corrupt("заголовок вне границ файла");
+        }
+    }
+
+    // Строки дописываются в кучу до записи, чтобы запись никогда не ссылалась на недописанные байты.
+    // Запись идёт в свободную копию слота; LIVE ставится ей после всех полей, и только затем снимается
+    // со старой копии
+    void write(Task task) {
+        int id = task.getId();
+        byte[] title = bytesOf(task.getTitle());
+        byte[] description = bytesOf(task.getDescription());
+        long titleOffset = appendString(title);
+        long descriptionOffset = appendString(description);
+
+        int slot = slotOffset(id);
+        int current = liveCopy(slot);
+        int offset = current == slot ? slot + RECORD_SIZE : slot;
+        int generation = current >= 0 ? records.getInt(current + GENERATION_OFFSET) + 1 : 0;
+        LocalDateTime startTime = task.getStartTime();
+        Duration duration = task.getDuration();
+        records.put(offset, EMPTY)
+                .put(offset + 1, (byte) task.getType().ordinal())
+                .put(offset + 2, (byte) (task.getStatus() != null ? task.getStatus().ordinal() : -1))
+                .putInt(offset + 4, id)
+                .putInt(offset + 8, task instanceof Subtask ? ((Subtask) task).getEpicId() : -1)
+                .putLong(offset + 12, startTime != null ? startTime.toEpochSecond(ZoneOffset.UTC) : NO_TIME)
+                .putLong(offset + 20, duration != null ? duration.toMinutes() : -1)
+                .putLong(offset + 28, titleOffset)
+                .putInt(offset + 36, title != null ? title.length : -1)
+                .putLong(offset + 40, descriptionOffset)
+                .putInt(offset + 48, description != null ? description.length : -1)
+                .putInt(offset + GENERATION_OFFSET, generation)
+                .put(offset, LIVE);
+        if (current >= 0) {
+            records.put(current, EMPTY);
+        }
+    }
+
+    void delete(int id) {
+        if (id >= 0 && id < slotCount) {
+            int slot = HEADER_SIZE + id * SLOT_SIZE;
+            records.put(slot, EMPTY).put(slot + RECORD_SIZE, EMPTY);
+        }
+    }
+
+    List<Task> readAll(TaskManager taskManager) {
+        List<Task> entities = new ArrayList<>();
+        for (int id = 0; id < slotCount; id++) {
+            int slot = HEADER_SIZE + id * SLOT_SIZE;
+            int offset = liveCopy(slot);
+            if (offset >= 0) {
+                // Запись прервали между установкой LIVE новой копии и снятием со старой — старая снимается сейчас
+                int other = offset == slot ? slot + RECORD_SIZE : slot;
+                records.put(other, EMPTY);
+                entities.add(readRecord(offset, taskManager));
+            }
+        }
+        return entities;
+    }
+
+    void force() {
+        records.force();
+        heap.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+        try {
+            recordsChannel.close();
+            heapChannel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось закрыть хранилище задач", e);
+        }
+    }
+
+    // Смещение живой копии слота или -1. Обе копии живы, только если запись прервали, — тогда новее та,
+    // у которой поколение больше (сравнение через разность переживает переполнение)
+    private int liveCopy(int slot) {
+        boolean first = records.get(slot) == LIVE;
+        boolean second = records.get(slot + RECORD_SIZE) == LIVE;
+        if (first && second) {
+            int difference = records.getInt(slot + RECORD_SIZE + GENERATION_OFFSET)
+                    - records.getInt(slot + GENERATION_OFFSET);
+            return difference > 0 ? slot + RECORD_SIZE : slot;
+        }
+        return first ? slot : second ? slot + RECORD_SIZE : -1;
+    }
+
+    private Task readRecord(int offset, TaskManager taskManager) {
+        byte typeOrdinal = records.get(offset + 1);
+        if (typeOrdinal < 0 || typeOrdinal >= TYPES.length) {
+            throw corrupt("неизвестный тип задачи " + typeOrdinal);
+        }
+        TaskType type = TYPES[typeOrdinal];
+        byte statusOrdinal = records.get(offset + 2);
+        if (statusOrdinal < -1 || statusOrdinal >= STATUSES.length) {
+            throw corrupt("неизвестный статус " + statusOrdinal);
+        }
+        Status status = statusOrdinal >= 0 ? STATUSES[statusOrdinal] : null;
+        int id = records.getInt(offset + 4);
+        int epicId = records.getInt(offset + 8);
+        long startSeconds = records.getLong(offset + 12);
+        LocalDateTime startTime = startSeconds != NO_TIME
+                ? LocalDateTime.ofEpochSecond(startSeconds, 0, ZoneOffset.UTC)
+                : null;
+        long minutes = records.getLong(offset + 20);
+        Duration duration = minutes >= 0 ? Duration.ofMinutes(minutes) : null;
+        String title = readString(records.getLong(offset + 28), records.getInt(offset + 36));
+        String description = readString(records.getLong(offset + 40), records.getInt(offset + 48));
+
+        Task task = switch (type) {
+            case TASK -> new Task(title, description, taskManager, status, startTime, duration);
+            case SUBTASK -> new Subtask(title, description, taskManager, epicId, status, startTime, duration);
+            case EPIC -> new Epic(title, description, taskManager, status);
+        };
+        task.setId(id);
+        return task;
+    }
+
+    private int slotOffset(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Некорректный id задачи: " + id);
+        }
+        long end = HEADER_SIZE + (long) (id + 1) * SLOT_SIZE;
+        if (end > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Id задачи не помещается в хранилище: " + id);
+        }
+        if (end > records.capacity()) {
+            records = remap(recordsChannel, records, end);
+        }
+        if (id >= slotCount) {
+            slotCount = id + 1;
+            records.putInt(SLOT_COUNT_OFFSET, slotCount);
+        }
+        return HEADER_SIZE + id * SLOT_SIZE;
+    }
+
+    private long appendString(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return heapEnd;
+        }
+        long offset = heapEnd;
+        long end = offset + bytes.length;
+        if (end > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Куча строк хранилища переполнена");
+        }
+        if (end > heap.capacity()) {
+            heap = remap(heapChannel, heap, end);
+        }
+        heap.put((int) offset, bytes);
+        heapEnd = end;
+        records.putLong(HEAP_END_OFFSET, heapEnd);
+        return offset;
+    }
+
+    private String readString(long offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        if (offset < 0 || offset + length > heapEnd) {
+            throw corrupt("строка за концом кучи");
+        }
+        byte[] bytes = new byte[length];
+        heap.get((int) offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Отображение растёт вдвое, чтобы перераспределение было редким
+    private static MappedByteBuffer remap(FileChannel channel, MappedByteBuffer current, long required) {
+        long size = Math.min(Integer.MAX_VALUE, Math.max(required, (long) current.capacity() * 2));
+        current.force();
+        try {
+            return map(channel, size);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось расширить хранилище задач", e);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private static ManagerSaveException corrupt(String reason) {
+        return new ManagerSaveException("Хранилище задач повреждено: " + reason);
+    }
+
+    private static void closeQuietly(FileChannel channel, Exception cause) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static byte[] bytesOf(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.manager;
+
+public enum SnapshotFormat {
+    // Текстовый формат id,type,title,status,description,startTime,duration,epic
+    CSV,
+    // Версионированный двоичный формат, см. BinarySnapshot
+    BINARY
+}
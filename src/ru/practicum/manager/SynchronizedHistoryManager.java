@@ -0,0 +1,48 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Task;
+
+import java.util.List;
+
+class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+
+    SynchronizedHistoryManager(HistoryManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        delegate.add(task);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return delegate.getHistory();
+    }
+
+    @Override
+    public synchronized List<Task> getHistory(int limit) {
+        return delegate.getHistory(limit);
+    }
+
+    @Override
+    public synchronized int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return delegate.getCapacity();
+    }
+
+    @Override
+    public synchronized long estimateMemoryUsage() {
+        return delegate.estimateMemoryUsage();
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.manager;
+
+import com.google.gson.annotations.Expose;
+import ru.practicum.model.Status;
+import ru.practicum.model.TaskType;
+
+/**
+ * Событие об изменении в менеджере. sequence растёт от события к событию одной шины; status — статус задачи
+ * после изменения (у удалённой — последний), у STATUS_CHANGED — новый статус эпика.
+ */
+public final class TaskEvent {
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // Статус эпика пересчитан по подзадачам и изменился
+        STATUS_CHANGED
+    }
+
+    @Expose
+    private final long sequence;
+    @Expose
+    private final Kind kind;
+    @Expose
+    private final TaskType type;
+    @Expose
+    private final int id;
+    @Expose
+    private final Status status;
+
+    TaskEvent(long sequence, Kind kind, TaskType type, int id, Status status) {
+        this.sequence = sequence;
+        this.kind = kind;
+        this.type = type;
+        this.id = id;
+        this.status = status;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.manager;
+
+import ru.practicum.model.Task;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Шина событий менеджера. Подписчики вызываются синхронно, в потоке изменения и под его блокировками,
+ * поэтому не должны блокироваться — например, только кладут событие в свою очередь. Исключение подписчика
+ * не мешает ни изменению, ни остальным подписчикам. Без подписчиков события не создаются вовсе.
+ * Независимые изменения в ConcurrentTaskManager идут параллельно, так что их события могут прийти
+ * подписчику не по порядку sequence; события одной задачи упорядочены.
+ */
+public class TaskEventBus {
+    private final List<Consumer<TaskEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Возвращает действие, отменяющее подписку
+    public Runnable subscribe(Consumer<TaskEvent> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    void publish(TaskEvent.Kind kind, Task task) {
+        if (task == null || subscribers.isEmpty()) {
+            return;
+        }
+        TaskEvent event = new TaskEvent(sequence.incrementAndGet(), kind, task.getType(), task.getId(),
+                task.getStatus());
+        for (Consumer<TaskEvent> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (RuntimeException e) {
+                // Сломанный подписчик не должен откатывать уже выполненное изменение
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.manager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Журнал изменений (write-ahead log): по одной текстовой записи на операцию, только дозапись в конец файла.
+ * Когда данные сбрасываются на диск, определяет {@link JournalSyncPolicy}.
+ */
+class TaskJournal implements Closeable {
+    private final File file;
+    private final JournalSettings settings;
+
+    private FileOutputStream stream;
+    private BufferedWriter writer;
+    private ScheduledExecutorService syncScheduler;
+    private int recordCount;
+    private int unsyncedCount;
+
+    TaskJournal(File file, JournalSettings settings) {
+        this.file = file;
+        this.settings = settings;
+    }
+
+    List<String> readRecords() {
+        List<String> records = new ArrayList<>();
+        if (!file.exists()) {
+            return records;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    records.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось прочитать журнал изменений", e);
+        }
+        return records;
+    }
+
+    synchronized void open() {
+        openStream(true);
+        if (settings.getSyncPolicy() == JournalSyncPolicy.PERIODIC && syncScheduler == null) {
+            syncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = settings.getSyncIntervalMillis();
+            syncScheduler.scheduleAtFixedRate(this::syncQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    synchronized void append(String record) {
+        write(record);
+        syncIfDue();
+    }
+
+    // Записи дописываются подряд и сбрасываются на диск по политике один раз, как одна операция
+    synchronized void appendAll(List<String> records) {
+        records.forEach(this::write);
+        syncIfDue();
+    }
+
+    private void write(String record) {
+        try {
+            writer.write(record);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось записать изменение в журнал", e);
+        }
+        recordCount++;
+        unsyncedCount++;
+    }
+
+    private void syncIfDue() {
+        if (settings.getSyncPolicy() == JournalSyncPolicy.PER_OPERATION
+                || (settings.getSyncPolicy() == JournalSyncPolicy.GROUPED
+                && unsyncedCount >= settings.getGroupSize())) {
+            sync();
+        }
+    }
+
+    synchronized void sync() {
+        if (unsyncedCount == 0) {
+            return;
+        }
+        try {
+            writer.flush();
+            stream.getFD().sync();
+            unsyncedCount = 0;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось сбросить журнал на диск", e);
+        }
+    }
+
+    // Вызывается после записи снимка: всё, что было в журнале, уже есть в CSV
+    synchronized void reset() {
+        closeStream();
+        openStream(false);
+        recordCount = 0;
+        unsyncedCount = 0;
+    }
+
+    synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    synchronized void setRecordCount(int recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (syncScheduler != null) {
+            syncScheduler.shutdownNow();
+            syncScheduler = null;
+        }
+        if (writer != null) {
+            sync();
+            closeStream();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (ManagerSaveException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    private void openStream(boolean append) {
+        try {
+            stream = new FileOutputStream(file, append);
+            writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось открыть журнал изменений", e);
+        }
+    }
+
+    private void closeStream() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось закрыть журнал изменений", e);
+        } finally {
+            writer = null;
+            stream = null;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package ru.practicum.manager;
 
 import ru.practicum.model.Epic;
+import ru.practicum.model.Status;
 import ru.practicum.model.Subtask;
 import ru.practicum.model.Task;
+import ru.practicum.model.TaskType;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TaskManager {
@@ -14,6 +17,10 @@ public interface TaskManager {
 
         List<Task> getAllTasks();
 
+        List<Task> getTasksPage(int afterId, int limit);
+
+        List<Task> getTasksByStatus(Status status);
+
         Task getTaskById(int id);
 
         Task createTask(Task task);
@@ -26,6 +33,10 @@ public interface TaskManager {
 
         List<Epic> getAllEpics();
 
+        List<Epic> getEpicsPage(int afterId, int limit);
+
+        List<Epic> getEpicsByStatus(Status status);
+
         Epic getEpicById(int id);
 
         Epic createEpic(Epic epic);
@@ -38,6 +49,10 @@ public interface TaskManager {
 
         List<Subtask> getAllSubtasks();
 
+        List<Subtask> getSubtasksPage(int afterId, int limit);
+
+        List<Subtask> getSubtasksByStatus(Status status);
+
         Subtask getSubtaskById(int id);
 
         List<Subtask> getSubtasksByEpicId(int id);
@@ -52,8 +67,20 @@ public interface TaskManager {
 
         List<Task> getHistory();
 
+        List<Task> getHistory(int limit);
+
         HistoryManager getHistoryManager();
 
         List<Task> getPrioritizedTasks();
 
+        List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+        BatchResult applyBatch(List<BatchOperation> operations);
+
+        long getVersion();
+
+        long getVersion(TaskType type);
+
+        TaskEventBus getEventBus();
+
 }
@@ -6,82 +6,184 @@ import ru.practicum.manager.TaskManager;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 
 public class Epic extends Task {
+    // Неизменяемый снимок подзадач для чтения и сериализации: его можно отдавать и обходить, пока другой поток
+    // меняет эпик. Собирается лениво, при первом чтении после изменения; null — снимок устарел.
+    // Сервер кодирует эпики через EpicAdapter, который читает getSubtasks() и добавляет подзадачи через
+    // addSubtasks. @Expose оставлен для Gson без адаптеров: он читает и пишет поле напрямую, поэтому
+    // замена списка в обход методов отслеживается по ссылке
     @Expose
-    private List<Subtask> subtasks;
+    private List<Subtask> subtasks = List.of();
+    private List<Subtask> builtSnapshot = subtasks;
+
+    // Подзадачи по id в порядке добавления — по ним добавление и удаление идут без обхода списка.
+    // Агрегаты по подзадачам обновляются вместе с ними за O(log k), поэтому статус, начало, конец
+    // и длительность эпика читаются без обхода. Вклад каждой подзадачи запоминается по id,
+    // чтобы его можно было вычесть, даже если подзадачу изменили.
+    private final Map<Integer, Subtask> subtasksById = new LinkedHashMap<>();
+    private final Map<Integer, Contribution> contributions = new HashMap<>();
+    private final int[] statusCounts = new int[Status.values().length];
+    private final TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+    private long totalMinutes;
+
+    private record Contribution(Status status, LocalDateTime startTime, LocalDateTime endTime, long minutes) {
+    }
 
     public Epic() {
-        this.subtasks = new ArrayList<>();
     }
 
     public Epic(String title, String description, TaskManager taskManager, Status status) {
         super(title, description, taskManager, status, null, null);
-        this.subtasks = new ArrayList<>();
     }
 
     @Override
-    public LocalDateTime getStartTime() {
-        if (subtasks.isEmpty()) {
-            return null;
-        }
-        return subtasks.stream()
-                .map(Subtask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
+    public synchronized LocalDateTime getStartTime() {
+        adoptReplacedList();
+        return startTimes.isEmpty() ? null : startTimes.firstKey();
     }
 
     @Override
-    public Duration getDuration() {
-        if (subtasks.isEmpty()) {
-            return null;
-        }
-        long totalMinutes = subtasks.stream()
-                .map(Subtask::getDuration)
-                .filter(Objects::nonNull)
-                .mapToLong(Duration::toMinutes)
-                .sum();
-        return Duration.ofMinutes(totalMinutes);
+    public synchronized Duration getDuration() {
+        adoptReplacedList();
+        return contributions.isEmpty() ? null : Duration.ofMinutes(totalMinutes);
     }
 
     @Override
-    public LocalDateTime getEndTime() {
-        if (subtasks.isEmpty()) {
-            return null;
-        }
-        return subtasks.stream()
-                .map(Subtask::getEndTime)
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
+    public synchronized LocalDateTime getEndTime() {
+        adoptReplacedList();
+        return endTimes.isEmpty() ? null : endTimes.lastKey();
     }
 
-    public List<Subtask> getSubtasks() {
+    public synchronized int getSubtaskCount(Status status) {
+        adoptReplacedList();
+        return statusCounts[status.ordinal()];
+    }
+
+    // Статус по правилам ТЗ: NEW, если все подзадачи новые (или их нет), DONE — если все завершены
+    public synchronized Status calculateStatus() {
+        adoptReplacedList();
+        int total = contributions.size();
+        if (total == 0 || statusCounts[Status.NEW.ordinal()] == total) {
+            return Status.NEW;
+        }
+        if (statusCounts[Status.DONE.ordinal()] == total) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
 
+    // Неизменяемый список подзадач в порядке добавления
+    public synchronized List<Subtask> getSubtasks() {
+        adoptReplacedList();
+        if (subtasks == null) {
+            subtasks = List.copyOf(subtasksById.values());
+            builtSnapshot = subtasks;
+        }
         return subtasks;
     }
 
-    public void addSubtask(Object subtask) {
+    public synchronized void addSubtask(Object subtask) {
         if (subtask == this) {
             throw new IllegalArgumentException("Нельзя добавить эпик как подзадачу самому себе");
         }
         if (!(subtask instanceof Subtask)) {
             throw new IllegalArgumentException("Можно добавлять только подзадачи");
         }
-        Subtask task = (Subtask) subtask;
+        adoptReplacedList();
+        put((Subtask) subtask);
+    }
+
+    public synchronized void addSubtasks(Collection<Subtask> newSubtasks) {
+        adoptReplacedList();
+        newSubtasks.forEach(this::put);
+    }
+
+    public synchronized void removeSubtask(Subtask subtask) {
+        adoptReplacedList();
+        if (subtasksById.get(subtask.getId()) == subtask) {
+            removeById(subtask.getId());
+        }
+    }
+
+    public synchronized void removeSubtaskById(int subtaskId) {
+        adoptReplacedList();
+        removeById(subtaskId);
+    }
+
+    // Повторное добавление подзадачи с тем же id заменяет её и пересчитывает её вклад в агрегаты
+    private void put(Subtask subtask) {
+        subtasksById.put(subtask.getId(), subtask);
+        forget(subtask.getId());
+        remember(subtask);
+        subtasks = null;
+    }
+
+    private void removeById(int subtaskId) {
+        if (subtasksById.remove(subtaskId) != null) {
+            forget(subtaskId);
+            subtasks = null;
+        }
+    }
 
-        if (!subtasks.contains(task)) {
-            subtasks.add(task);
+    // Список подзадач мог подменить Gson без адаптеров при разборе JSON, минуя addSubtask, — тогда подзадачи
+    // и агрегаты строятся заново по нему. Другой причины расхождения нет: остальные изменения идут через put
+    private void adoptReplacedList() {
+        if (subtasks == builtSnapshot || subtasks == null) {
+            return;
         }
+        List<Subtask> replaced = subtasks;
+        subtasksById.clear();
+        contributions.clear();
+        Arrays.fill(statusCounts, 0);
+        startTimes.clear();
+        endTimes.clear();
+        totalMinutes = 0;
+        replaced.stream().filter(Objects::nonNull).forEach(this::put);
     }
 
-    public void removeSubtask(Subtask subtask) {
+    private void remember(Subtask subtask) {
+        Duration duration = subtask.getDuration();
+        Contribution contribution = new Contribution(subtask.getStatus(), subtask.getStartTime(),
+                subtask.getEndTime(), duration != null ? duration.toMinutes() : 0);
+        contributions.put(subtask.getId(), contribution);
+
+        if (contribution.status() != null) {
+            statusCounts[contribution.status().ordinal()]++;
+        }
+        if (contribution.startTime() != null) {
+            startTimes.merge(contribution.startTime(), 1, Integer::sum);
+        }
+        if (contribution.endTime() != null) {
+            endTimes.merge(contribution.endTime(), 1, Integer::sum);
+        }
+        totalMinutes += contribution.minutes();
+    }
 
-        subtasks.remove(subtask);
+    private void forget(int subtaskId) {
+        Contribution contribution = contributions.remove(subtaskId);
+        if (contribution == null) {
+            return;
+        }
+        if (contribution.status() != null) {
+            statusCounts[contribution.status().ordinal()]--;
+        }
+        if (contribution.startTime() != null) {
+            startTimes.computeIfPresent(contribution.startTime(), (time, count) -> count > 1 ? count - 1 : null);
+        }
+        if (contribution.endTime() != null) {
+            endTimes.computeIfPresent(contribution.endTime(), (time, count) -> count > 1 ? count - 1 : null);
+        }
+        totalMinutes -= contribution.minutes();
     }
 
     @Override
@@ -111,12 +213,12 @@ public class Epic extends Task {
         Epic epic = (Epic) o;
 
         return super.equals(o) &&
-                Objects.equals(subtasks, epic.subtasks);
+                Objects.equals(getSubtasks(), epic.getSubtasks());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), subtasks);
+        return Objects.hash(super.hashCode(), getSubtasks());
     }
 
     @Override
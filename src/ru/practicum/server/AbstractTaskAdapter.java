@@ -0,0 +1,131 @@
+package ru.practicum.server;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import ru.practicum.model.Status;
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Потоковый JSON-кодек задачи без рефлексии. Пишет те же поля и в том же порядке, что и рефлексивный Gson
+ * с excludeFieldsWithoutExposeAnnotation: сначала поля подкласса, затем поля Task; null-поля пропускаются.
+ * Время — через {@link IsoDateTime}, длительность — в минутах, как в {@link DurationAdapter}.
+ * Представление {@link JsonView} оставляет при записи только выбранные поля; на чтение оно не влияет.
+ * При чтении неизвестные поля пропускаются, а неизвестный статус становится null, как у Gson.
+ * Задача собирается конструктором уже после чтения всех полей: сеттер epicId у подзадачи сверяется
+ * с менеджером, которого у только что прочитанной задачи ещё нет.
+ */
+public abstract class AbstractTaskAdapter<T extends Task> extends TypeAdapter<T> {
+
+    // Прочитанные поля задачи; поля подклассов заполняет readOwnField
+    protected static class TaskFields {
+        String title;
+        String description;
+        int id;
+        Status status;
+        LocalDateTime startTime;
+        Duration duration;
+        int epicId;
+        List<Subtask> subtasks;
+    }
+
+    protected final JsonView view;
+
+    protected AbstractTaskAdapter() {
+        this(JsonView.FULL);
+    }
+
+    protected AbstractTaskAdapter(JsonView view) {
+        this.view = view;
+    }
+
+    protected abstract T create(TaskFields fields);
+
+    // Поля подкласса, записываются перед полями Task
+    protected void writeOwnFields(JsonWriter out, T task) throws IOException {
+    }
+
+    // true, если поле принадлежит подклассу и прочитано
+    protected boolean readOwnField(String name, JsonReader in, TaskFields fields) throws IOException {
+        return false;
+    }
+
+    @Override
+    public void write(JsonWriter out, T task) throws IOException {
+        if (task == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeOwnFields(out, task);
+        if (view.includes("title") && task.getTitle() != null) {
+            out.name("title").value(task.getTitle());
+        }
+        if (view.includes("description") && task.getDescription() != null) {
+            out.name("description").value(task.getDescription());
+        }
+        if (view.includes("id")) {
+            out.name("id").value(task.getId());
+        }
+        if (view.includes("status") && task.getStatus() != null) {
+            out.name("status").value(task.getStatus().name());
+        }
+        if (view.includes("startTime") && task.getStartTime() != null) {
+            out.name("startTime").value(IsoDateTime.format(task.getStartTime()));
+        }
+        if (view.includes("duration") && task.getDuration() != null) {
+            out.name("duration").value(task.getDuration().toMinutes());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        TaskFields fields = new TaskFields();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            if (readOwnField(name, in, fields)) {
+                continue;
+            }
+            switch (name) {
+                case "title" -> fields.title = in.nextString();
+                case "description" -> fields.description = in.nextString();
+                case "id" -> fields.id = in.nextInt();
+                case "status" -> fields.status = parseStatus(in.nextString());
+                case "startTime" -> {
+                    String value = in.nextString();
+                    fields.startTime = value.isEmpty() ? null : IsoDateTime.parse(value);
+                }
+                case "duration" -> fields.duration = Duration.ofMinutes(in.nextLong());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return create(fields);
+    }
+
+    private static Status parseStatus(String value) {
+        for (Status status : Status.values()) {
+            if (status.name().equals(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.server;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import ru.practicum.model.Epic;
+import ru.practicum.model.Subtask;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+// Подзадачи эпика пишутся и читаются вложенным SubtaskAdapter. Время и длительность берутся из геттеров,
+// то есть из агрегатов по подзадачам, а не из последнего сохранённого в полях значения
+public class EpicAdapter extends AbstractTaskAdapter<Epic> {
+    private final SubtaskAdapter subtaskAdapter;
+
+    public EpicAdapter() {
+        this(JsonView.FULL);
+    }
+
+    public EpicAdapter(JsonView view) {
+        super(view);
+        subtaskAdapter = new SubtaskAdapter(view);
+    }
+
+    @Override
+    protected Epic create(TaskFields fields) {
+        Epic epic = new Epic(fields.title, fields.description, null, fields.status);
+        epic.setId(fields.id);
+        epic.setStartTime(fields.startTime);
+        epic.setDuration(fields.duration);
+        if (fields.subtasks != null) {
+            epic.addSubtasks(fields.subtasks);
+        }
+        return epic;
+    }
+
+    @Override
+    protected void writeOwnFields(JsonWriter out, Epic epic) throws IOException {
+        if (!view.expandSubtasks()) {
+            return;
+        }
+        out.name("subtasks").beginArray();
+        for (Subtask subtask : epic.getSubtasks()) {
+            subtaskAdapter.write(out, subtask);
+        }
+        out.endArray();
+    }
+
+    @Override
+    protected boolean readOwnField(String name, JsonReader in, TaskFields fields) throws IOException {
+        if (!name.equals("subtasks")) {
+            return false;
+        }
+        fields.subtasks = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            Subtask subtask = subtaskAdapter.read(in);
+            if (subtask != null) {
+                fields.subtasks.add(subtask);
+            }
+        }
+        in.endArray();
+        return true;
+    }
+}
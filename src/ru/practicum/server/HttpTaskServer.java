@@ -1,7 +1,9 @@
 package ru.practicum.server;
 
 import com.sun.net.httpserver.HttpServer;
+import ru.practicum.server.handler.BatchHandler;
 import ru.practicum.server.handler.EpicHandler;
+import ru.practicum.server.handler.EventsHandler;
 import ru.practicum.server.handler.HistoryHandler;
 import ru.practicum.server.handler.PrioritizedHandler;
 import ru.practicum.server.handler.SubtaskHandler;
@@ -11,40 +13,77 @@ import ru.practicum.manager.TaskManager;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
 
 public class HttpTaskServer {
-    private static final int PORT = 8080;
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_BACKLOG = 0;
+
     private final HttpServer server;
+    private final ExecutorService executor;
+    private final EventsHandler eventsHandler;
 
-    public HttpTaskServer(TaskManager taskManager) throws IOException {
-        server = HttpServer.create(new InetSocketAddress(PORT), 0);
+    // executor == null — запросы обслуживает единственный поток-диспетчер HttpServer
+    public HttpTaskServer(TaskManager taskManager, int port, int backlog, ExecutorService executor)
+            throws IOException {
+        this.executor = executor;
+        server = HttpServer.create(new InetSocketAddress(port), backlog);
         server.createContext("/tasks", new TaskHandler(taskManager));
         server.createContext("/epics", new EpicHandler(taskManager));
         server.createContext("/subtasks", new SubtaskHandler(taskManager));
         server.createContext("/history", new HistoryHandler(taskManager));
         server.createContext("/prioritized", new PrioritizedHandler(taskManager));
+        server.createContext("/batch", new BatchHandler(taskManager));
+        eventsHandler = new EventsHandler(taskManager.getEventBus());
+        server.createContext("/events", eventsHandler);
+        server.setExecutor(executor);
+    }
+
+    public HttpTaskServer(TaskManager taskManager) throws IOException {
+        this(taskManager, DEFAULT_PORT, DEFAULT_BACKLOG, null);
     }
 
     public HttpTaskServer() throws IOException {
         this(Managers.getDefault());
     }
 
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
     public void start() {
         server.start();
-        System.out.println("HTTP-сервер запущен на http://localhost:" + PORT);
+        System.out.println("HTTP-сервер запущен на http://localhost:" + getPort());
     }
 
     public void stop() {
-
+        // Открытые ленты событий иначе держали бы остановку сервера до истечения задержки
+        eventsHandler.close();
         server.stop(1);
+        if (executor != null) {
+            executor.shutdown();
+        }
     }
 
+    // Настройки задаются системными свойствами: kanban.port, kanban.backlog,
+    // kanban.executor (dispatcher, fixed-pool, work-stealing, virtual-threads) и kanban.threads;
+    // сжатие ответов — kanban.gzip.threshold и kanban.gzip.level (см. BaseHttpHandler);
+    // лента /events — kanban.events.buffer и kanban.events.heartbeat (см. EventsHandler)
     public static void main(String[] args) {
+        int port = Integer.getInteger("kanban.port", DEFAULT_PORT);
+        int backlog = Integer.getInteger("kanban.backlog", DEFAULT_BACKLOG);
+        int threads = Integer.getInteger("kanban.threads", Runtime.getRuntime().availableProcessors());
+        ServerExecutorType executorType = ServerExecutorType.fromString(
+                System.getProperty("kanban.executor", ServerExecutorType.DISPATCHER.name()));
+
+        TaskManager taskManager = executorType == ServerExecutorType.DISPATCHER
+                ? Managers.getDefault()
+                : Managers.getConcurrent();
+
         try {
-            new HttpTaskServer().start();
+            new HttpTaskServer(taskManager, port, backlog, executorType.create(threads)).start();
         } catch (IOException e) {
             System.err.println("Не удалось запустить сервер: " + e.getMessage());
         }
     }
 }
-
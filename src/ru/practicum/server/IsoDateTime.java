@@ -0,0 +1,100 @@
+package ru.practicum.server;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Быстрые запись и разбор LocalDateTime в формате ISO_LOCAL_DATE_TIME без DateTimeFormatter:
+ * дата и время пишутся цифрами в char[] и читаются по фиксированным позициям.
+ * Формат совпадает с DateTimeFormatter.ISO_LOCAL_DATE_TIME: секунды пишутся всегда, доли секунды —
+ * только ненулевые и без хвостовых нулей. Годы вне 0000–9999 и нестандартные строки
+ * уходят в DateTimeFormatter.
+ */
+public final class IsoDateTime {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private IsoDateTime() {
+    }
+
+    public static String format(LocalDateTime value) {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            return FORMATTER.format(value);
+        }
+        int nano = value.getNano();
+        int fractionDigits = 0;
+        if (nano != 0) {
+            fractionDigits = 9;
+            int trimmed = nano;
+            while (trimmed % 10 == 0) {
+                trimmed /= 10;
+                fractionDigits--;
+            }
+        }
+
+        char[] chars = new char[fractionDigits == 0 ? 19 : 20 + fractionDigits];
+        writeDigits(chars, 0, year, 4);
+        chars[4] = '-';
+        writeDigits(chars, 5, value.getMonthValue(), 2);
+        chars[7] = '-';
+        writeDigits(chars, 8, value.getDayOfMonth(), 2);
+        chars[10] = 'T';
+        writeDigits(chars, 11, value.getHour(), 2);
+        chars[13] = ':';
+        writeDigits(chars, 14, value.getMinute(), 2);
+        chars[16] = ':';
+        writeDigits(chars, 17, value.getSecond(), 2);
+        if (fractionDigits > 0) {
+            chars[19] = '.';
+            writeDigits(chars, 20, nano / pow10(9 - fractionDigits), fractionDigits);
+        }
+        return new String(chars);
+    }
+
+    // Принимает yyyy-MM-ddTHH:mm и yyyy-MM-ddTHH:mm:ss; остальное разбирает DateTimeFormatter
+    public static LocalDateTime parse(String value) {
+        int length = value.length();
+        if ((length == 16 || length == 19) && value.charAt(4) == '-' && value.charAt(7) == '-'
+                && value.charAt(10) == 'T' && value.charAt(13) == ':' && (length == 16 || value.charAt(16) == ':')) {
+            int year = readDigits(value, 0, 4);
+            int month = readDigits(value, 5, 2);
+            int day = readDigits(value, 8, 2);
+            int hour = readDigits(value, 11, 2);
+            int minute = readDigits(value, 14, 2);
+            int second = length == 19 ? readDigits(value, 17, 2) : 0;
+            if ((year | month | day | hour | minute | second) >= 0) {
+                // Диапазоны полей проверяет сам LocalDateTime.of
+                return LocalDateTime.of(year, month, day, hour, minute, second);
+            }
+        }
+        return LocalDateTime.parse(value, FORMATTER);
+    }
+
+    private static void writeDigits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    // -1, если среди символов есть не цифра
+    private static int readDigits(String value, int offset, int width) {
+        int result = 0;
+        for (int i = offset; i < offset + width; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
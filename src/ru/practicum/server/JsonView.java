@@ -0,0 +1,28 @@
+package ru.practicum.server;
+
+import java.util.Set;
+
+/**
+ * Представление задачи в JSON-ответе: какие поля писать (?fields=) и раскрывать ли подзадачи эпика
+ * (?expand=subtasks). fields == null — все поля. Подзадачи эпика от fields не зависят и управляются
+ * только expandSubtasks; внутри эпика они пишутся с тем же набором полей.
+ */
+public record JsonView(Set<String> fields, boolean expandSubtasks) {
+    public static final Set<String> FIELD_NAMES = Set.of("id", "title", "description", "status", "startTime",
+            "duration", "epicId");
+    // Полное представление, как без параметров у одной задачи
+    public static final JsonView FULL = new JsonView(null, true);
+
+    public JsonView {
+        if (fields != null) {
+            fields = Set.copyOf(fields);
+            if (fields.isEmpty() || !FIELD_NAMES.containsAll(fields)) {
+                throw new IllegalArgumentException("Недопустимый набор полей: " + fields);
+            }
+        }
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+}
@@ -6,23 +6,20 @@ import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 public class LocalDateTimeAdapter extends TypeAdapter<LocalDateTime> {
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-
     @Override
     public void write(JsonWriter out, LocalDateTime value) throws IOException {
         if (value == null) {
             out.nullValue();
         } else {
-            out.value(FORMATTER.format(value));
+            out.value(IsoDateTime.format(value));
         }
     }
 
     @Override
     public LocalDateTime read(JsonReader in) throws IOException {
         String value = in.nextString();
-        return value == null || value.isEmpty() ? null : LocalDateTime.parse(value, FORMATTER);
+        return value == null || value.isEmpty() ? null : IsoDateTime.parse(value);
     }
-}
\ No newline at end of file
+}
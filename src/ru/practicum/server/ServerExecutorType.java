@@ -0,0 +1,30 @@
+package ru.practicum.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public enum ServerExecutorType {
+    // Все запросы обрабатываются одним потоком-диспетчером HttpServer
+    DISPATCHER,
+    FIXED_POOL,
+    WORK_STEALING,
+    // Отдельный виртуальный поток на запрос
+    VIRTUAL_THREADS;
+
+    public ExecutorService create(int threads) {
+        switch (this) {
+            case FIXED_POOL:
+                return Executors.newFixedThreadPool(threads);
+            case WORK_STEALING:
+                return Executors.newWorkStealingPool(threads);
+            case VIRTUAL_THREADS:
+                return Executors.newVirtualThreadPerTaskExecutor();
+            default:
+                return null;
+        }
+    }
+
+    public static ServerExecutorType fromString(String value) {
+        return valueOf(value.trim().toUpperCase().replace('-', '_'));
+    }
+}
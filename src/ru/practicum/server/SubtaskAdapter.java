@@ -0,0 +1,40 @@
+package ru.practicum.server;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import ru.practicum.model.Subtask;
+
+import java.io.IOException;
+
+public class SubtaskAdapter extends AbstractTaskAdapter<Subtask> {
+    public SubtaskAdapter() {
+    }
+
+    public SubtaskAdapter(JsonView view) {
+        super(view);
+    }
+
+    @Override
+    protected Subtask create(TaskFields fields) {
+        Subtask subtask = new Subtask(fields.title, fields.description, null, fields.epicId, fields.status,
+                fields.startTime, fields.duration);
+        subtask.setId(fields.id);
+        return subtask;
+    }
+
+    @Override
+    protected void writeOwnFields(JsonWriter out, Subtask subtask) throws IOException {
+        if (view.includes("epicId")) {
+            out.name("epicId").value(subtask.getEpicId());
+        }
+    }
+
+    @Override
+    protected boolean readOwnField(String name, JsonReader in, TaskFields fields) throws IOException {
+        if (!name.equals("epicId")) {
+            return false;
+        }
+        fields.epicId = in.nextInt();
+        return true;
+    }
+}
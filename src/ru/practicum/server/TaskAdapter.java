@@ -0,0 +1,18 @@
+package ru.practicum.server;
+
+import ru.practicum.model.Task;
+
+public class TaskAdapter extends AbstractTaskAdapter<Task> {
+    public TaskAdapter() {
+    }
+
+    public TaskAdapter(JsonView view) {
+        super(view);
+    }
+
+    @Override
+    protected Task create(TaskFields fields) {
+        return new Task(fields.title, fields.description, fields.id, null, fields.status, fields.startTime,
+                fields.duration);
+    }
+}
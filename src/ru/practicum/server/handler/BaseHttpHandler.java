@@ -2,43 +2,357 @@ package ru.practicum.server.handler;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.model.Epic;
+import ru.practicum.model.Subtask;
+import ru.practicum.server.EpicAdapter;
+import ru.practicum.server.JsonView;
 import ru.practicum.server.LocalDateTimeAdapter;
+import ru.practicum.server.SubtaskAdapter;
+import ru.practicum.server.TaskAdapter;
+import ru.practicum.model.Status;
+import ru.practicum.model.Task;
 import ru.practicum.server.DurationAdapter;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 public abstract class BaseHttpHandler implements com.sun.net.httpserver.HttpHandler {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    // Списки длиннее порога пишутся потоком прямо в тело ответа (chunked), без промежуточной строки и byte[]
+    private static final int STREAMING_THRESHOLD = 64;
+    // Версии менеджера после перезапуска считаются заново, поэтому в ETag входит метка запуска процесса:
+    // ETag, выданный до перезапуска, не совпадёт с новым даже при той же версии
+    private static final String ETAG_EPOCH = Long.toString(System.currentTimeMillis(), 36);
+    // Ответы от порога и больше сжимаются, если клиент согласен (Accept-Encoding); мелкие дешевле отправить
+    // как есть. Порог в байтах и уровень сжатия 1–9 задаются свойствами kanban.gzip.threshold и kanban.gzip.level
+    private static final int COMPRESSION_THRESHOLD = Integer.getInteger("kanban.gzip.threshold", 1024);
+    private static final int COMPRESSION_LEVEL = Integer.getInteger("kanban.gzip.level", Deflater.DEFAULT_COMPRESSION);
+
     protected static final Gson GSON = new GsonBuilder()
             .excludeFieldsWithoutExposeAnnotation()
             .registerTypeAdapter(java.time.LocalDateTime.class, new LocalDateTimeAdapter())
             .registerTypeAdapter(java.time.Duration.class, new DurationAdapter())
+            // Задачи кодируются вручную, без рефлексии; остальные типы — по-прежнему через @Expose
+            .registerTypeAdapter(Task.class, new TaskAdapter())
+            .registerTypeAdapter(Subtask.class, new SubtaskAdapter())
+            .registerTypeAdapter(Epic.class, new EpicAdapter())
             .create();
+    // Gson для урезанных представлений. Наборы полей — подмножества JsonView.FIELD_NAMES, так что кеш ограничен
+    private static final Map<JsonView, Gson> VIEW_GSONS = new ConcurrentHashMap<>();
+
+    // Наследники регистрируют маршруты в конструкторе
+    protected final Router router = new Router();
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            switch (router.dispatch(exchange)) {
+                case NOT_FOUND -> sendNotFound(exchange);
+                case METHOD_NOT_ALLOWED -> sendMethodNotAllowed(exchange);
+                default -> {
+                }
+            }
+        } catch (Exception e) {
+            // Код ответа известен, только если заголовки уже ушли (потоковый ответ): второй статус отправить
+            // нельзя, поэтому ошибка уходит серверу, и он рвёт соединение — клиент не примет обрывок за ответ
+            if (exchange.getResponseCode() != -1) {
+                throw e instanceof IOException io ? io : new IOException(e);
+            }
+            sendServerError(exchange);
+        }
+    }
 
     protected void sendText(HttpExchange h, String text) throws IOException {
-        byte[] resp = text.getBytes(StandardCharsets.UTF_8);
+        sendResponse(h, text, 200);
+    }
+
+    protected void sendJson(HttpExchange h, Collection<?> items) throws IOException {
+        sendJson(h, items, items.size());
+    }
+
+    protected void sendJson(HttpExchange h, Collection<?> items, JsonView view) throws IOException {
+        sendJson(h, items, items.size(), view);
+    }
+
+    protected void sendJson(HttpExchange h, Object value, int itemCount) throws IOException {
+        sendJson(h, value, itemCount, JsonView.FULL);
+    }
+
+    protected void sendJson(HttpExchange h, Object value, int itemCount, JsonView view) throws IOException {
+        Gson gson = gsonFor(view);
+        if (itemCount <= STREAMING_THRESHOLD) {
+            sendText(h, gson.toJson(value));
+            return;
+        }
         h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        h.sendResponseHeaders(200, resp.length);
-        try (OutputStream os = h.getResponseBody()) {
-            os.write(resp);
+        // Длинный список заведомо больше порога, так что сжимается всегда, когда клиент это принимает
+        String encoding = negotiateEncoding(h);
+        h.sendResponseHeaders(200, 0);
+        JsonWriter writer = gson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(encode(h.getResponseBody(), encoding), StandardCharsets.UTF_8)));
+        // Поток закрывается только после успешной записи: закрытие дописывает завершающий chunk,
+        // и при ошибке клиент получил бы обрезанный JSON как целый ответ. Обрыв обмена делает handle
+        gson.toJson(value, value.getClass(), writer);
+        writer.close();
+    }
+
+    private static Gson gsonFor(JsonView view) {
+        if (view.equals(JsonView.FULL)) {
+            return GSON;
         }
+        // Адаптеры, зарегистрированные позже, перекрывают адаптеры GSON
+        return VIEW_GSONS.computeIfAbsent(view, v -> GSON.newBuilder()
+                .registerTypeAdapter(Task.class, new TaskAdapter(v))
+                .registerTypeAdapter(Subtask.class, new SubtaskAdapter(v))
+                .registerTypeAdapter(Epic.class, new EpicAdapter(v))
+                .create());
     }
 
     protected void sendResponse(HttpExchange h, String text, int statusCode) throws IOException {
         byte[] resp = text.getBytes(StandardCharsets.UTF_8);
         h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-        h.sendResponseHeaders(statusCode, resp.length);
-        try (OutputStream os = h.getResponseBody()) {
+        String encoding = resp.length >= COMPRESSION_THRESHOLD ? negotiateEncoding(h) : null;
+        if (encoding == null) {
+            h.sendResponseHeaders(statusCode, resp.length);
+            try (OutputStream os = h.getResponseBody()) {
+                os.write(resp);
+            }
+            return;
+        }
+        // Размер сжатого тела заранее неизвестен, поэтому ответ уходит кусками
+        h.sendResponseHeaders(statusCode, 0);
+        try (OutputStream os = encode(h.getResponseBody(), encoding)) {
             os.write(resp);
         }
     }
 
+    // Выбирает gzip или deflate по Accept-Encoding с учётом q-значений; null — отвечать без сжатия.
+    // Заголовок Vary ставится в любом случае: представление зависит от Accept-Encoding
+    private static String negotiateEncoding(HttpExchange h) {
+        h.getResponseHeaders().set("Vary", "Accept-Encoding");
+        String acceptEncoding = h.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return null;
+        }
+        String best = null;
+        double bestQuality = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            double quality = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("*")) {
+                coding = "gzip";
+            }
+            // При равном весе gzip предпочтительнее: его одинаково понимают все клиенты
+            boolean better = quality > bestQuality || quality == bestQuality && coding.equals("gzip");
+            if ((coding.equals("gzip") || coding.equals("deflate")) && quality > 0 && better) {
+                best = coding;
+                bestQuality = quality;
+            }
+        }
+        if (best != null) {
+            h.getResponseHeaders().set("Content-Encoding", best);
+        }
+        return best;
+    }
+
+    private static OutputStream encode(OutputStream body, String encoding) throws IOException {
+        if (encoding == null) {
+            return body;
+        }
+        if (encoding.equals("gzip")) {
+            return new GZIPOutputStream(body, 8192) {
+                {
+                    def.setLevel(COMPRESSION_LEVEL);
+                }
+            };
+        }
+        // Deflater с заданным уровнем потоку не принадлежит, поэтому его память освобождается вручную
+        Deflater deflater = new Deflater(COMPRESSION_LEVEL);
+        return new DeflaterOutputStream(body, deflater, 8192) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    protected Map<String, String> queryParams(HttpExchange h) {
+        String query = h.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> params = new HashMap<>();
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    // ?fields=id,title,status оставляет в задачах только перечисленные поля, ?expand=subtasks раскрывает
+    // подзадачи эпиков. В списках подзадачи по умолчанию не раскрываются, у одного эпика — раскрываются;
+    // пустой expand отключает раскрытие. Неизвестное поле или раскрытие — null, на это отвечают 400
+    protected JsonView parseView(Map<String, String> params, boolean list) {
+        Set<String> fields = null;
+        String fieldsParam = params.get("fields");
+        if (fieldsParam != null) {
+            fields = new HashSet<>();
+            for (String field : fieldsParam.split(",")) {
+                if (!field.isBlank()) {
+                    fields.add(field.trim());
+                }
+            }
+            if (fields.isEmpty() || !JsonView.FIELD_NAMES.containsAll(fields)) {
+                return null;
+            }
+        }
+        boolean expandSubtasks = !list;
+        String expandParam = params.get("expand");
+        if (expandParam != null) {
+            expandSubtasks = false;
+            for (String expand : expandParam.split(",")) {
+                if (expand.trim().equals("subtasks")) {
+                    expandSubtasks = true;
+                } else if (!expand.isBlank()) {
+                    return null;
+                }
+            }
+        }
+        return new JsonView(fields, expandSubtasks);
+    }
+
+    protected boolean isPageRequest(Map<String, String> params) {
+        return params.containsKey("limit") || params.containsKey("after");
+    }
+
+    // Отдаёт страницу ?limit=&after= вместо полного списка; у менеджера запрашивается на один элемент больше,
+    // чтобы понять, есть ли следующая страница
+    protected <T extends Task> void sendPage(HttpExchange h, Map<String, String> params, JsonView view,
+                                             BiFunction<Integer, Integer, List<T>> pageSource) throws IOException {
+        int limit;
+        int afterId;
+        try {
+            limit = Integer.parseInt(params.getOrDefault("limit", String.valueOf(DEFAULT_PAGE_SIZE)));
+            afterId = Integer.parseInt(params.getOrDefault("after", "0"));
+        } catch (NumberFormatException e) {
+            sendBadRequest(h);
+            return;
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            sendBadRequest(h);
+            return;
+        }
+
+        List<T> items = pageSource.apply(afterId, limit + 1);
+        Integer nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            nextCursor = items.get(limit - 1).getId();
+        }
+        sendJson(h, new ListPage<>(items, nextCursor), items.size(), view);
+    }
+
+    // ?status= отдаёт выборку из индекса по статусу; вместе с постраничным обходом не используется
+    protected <T extends Task> void sendFiltered(HttpExchange h, Map<String, String> params, JsonView view,
+                                                 Function<Status, List<T>> statusSource) throws IOException {
+        Status status;
+        try {
+            status = Status.valueOf(params.get("status"));
+        } catch (IllegalArgumentException e) {
+            sendBadRequest(h);
+            return;
+        }
+        if (isPageRequest(params)) {
+            sendBadRequest(h);
+            return;
+        }
+        sendJson(h, statusSource.apply(status), view);
+    }
+
+    // Ставит ETag версии коллекции и отвечает 304, если клиент прислал его же в If-None-Match.
+    // Вызывается до чтения данных: версия, прочитанная раньше данных, не бывает новее них,
+    // так что устаревший ETag в худшем случае вызовет лишний полный ответ, но не потерю изменений
+    protected boolean checkNotModified(HttpExchange h, String collection, long version) throws IOException {
+        // Слабый ETag: сжатое и несжатое представления одной версии равнозначны
+        String etag = "\"" + collection + "-" + ETAG_EPOCH + "-" + version + "\"";
+        h.getResponseHeaders().set("ETag", "W/" + etag);
+        String ifNoneMatch = h.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null || !etagMatches(ifNoneMatch, etag)) {
+            return false;
+        }
+        h.sendResponseHeaders(304, -1);
+        h.close();
+        return true;
+    }
+
+    // If-None-Match сравнивает слабо: префикс W/ не учитывается, "*" совпадает с любой версией
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected void sendBadRequest(HttpExchange h) throws IOException {
+        sendResponse(h, "{\"error\":\"Bad request\"}", 400);
+    }
+
     protected void sendNotFound(HttpExchange h) throws IOException {
         sendResponse(h, "{\"error\":\"Not found\"}", 404);
     }
 
+    protected void sendNoContent(HttpExchange h) throws IOException {
+        h.sendResponseHeaders(204, -1);
+        h.close();
+    }
+
+    protected void sendMethodNotAllowed(HttpExchange h) throws IOException {
+        sendResponse(h, "{\"error\":\"Method not allowed\"}", 405);
+    }
+
     protected void sendHasOverlaps(HttpExchange h) throws IOException {
         sendResponse(h, "{\"error\":\"Task intersects with existing tasks\"}", 406);
     }
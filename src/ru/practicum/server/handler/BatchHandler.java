@@ -0,0 +1,99 @@
+package ru.practicum.server.handler;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.manager.BatchOperation;
+import ru.practicum.manager.BatchResult;
+import ru.practicum.manager.TaskManager;
+import ru.practicum.model.Epic;
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+import ru.practicum.model.TaskType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// POST /batch принимает массив операций вида {"op": "CREATE|UPDATE|DELETE", "type": "TASK|SUBTASK|EPIC",
+// "id": ..., "task": {...}} и применяет их одним вызовом applyBatch: всё или ничего
+public final class BatchHandler extends BaseHttpHandler {
+    private static final int MAX_BATCH_SIZE = 10_000;
+
+    private final TaskManager taskManager;
+
+    public BatchHandler(TaskManager taskManager) {
+        this.taskManager = taskManager;
+        router.add(HttpMethod.POST, "/batch", (exchange, ids) -> handleBatch(exchange));
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        List<BatchOperation> operations;
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            JsonArray items = GSON.fromJson(body, JsonArray.class);
+            if (items == null || items.isEmpty() || items.size() > MAX_BATCH_SIZE) {
+                sendBadRequest(exchange);
+                return;
+            }
+            operations = new ArrayList<>(items.size());
+            for (JsonElement item : items) {
+                BatchOperation operation = item.isJsonObject() ? parseOperation(item.getAsJsonObject()) : null;
+                if (operation == null) {
+                    sendBadRequest(exchange);
+                    return;
+                }
+                operations.add(operation);
+            }
+        } catch (JsonParseException | IllegalArgumentException | IllegalStateException e) {
+            // Неизвестные значения op и type, нечисловой id и задача, не подходящая под свой тип
+            sendBadRequest(exchange);
+            return;
+        }
+
+        BatchResult result = taskManager.applyBatch(operations);
+        sendResponse(exchange, GSON.toJson(result), result.isApplied() ? 200 : 400);
+    }
+
+    // null — в операции нет обязательного поля: op и type всегда, id для удаления, task для создания и изменения
+    private BatchOperation parseOperation(JsonObject item) {
+        JsonPrimitive op = primitive(item, "op");
+        JsonPrimitive typeName = primitive(item, "type");
+        if (op == null || typeName == null) {
+            return null;
+        }
+        BatchOperation.Kind kind = BatchOperation.Kind.valueOf(op.getAsString());
+        TaskType type = TaskType.valueOf(typeName.getAsString());
+        JsonPrimitive id = primitive(item, "id");
+        if (kind == BatchOperation.Kind.DELETE) {
+            return id != null ? BatchOperation.delete(type, id.getAsInt()) : null;
+        }
+
+        JsonElement taskJson = item.get("task");
+        if (taskJson == null || !taskJson.isJsonObject()) {
+            return null;
+        }
+        Task task = GSON.fromJson(taskJson, switch (type) {
+            case TASK -> Task.class;
+            case SUBTASK -> Subtask.class;
+            case EPIC -> Epic.class;
+        });
+        task.setTaskManager(taskManager);
+        if (kind == BatchOperation.Kind.CREATE) {
+            return BatchOperation.create(task);
+        }
+        if (id != null) {
+            task.setId(id.getAsInt());
+        }
+        return BatchOperation.update(task);
+    }
+
+    private static JsonPrimitive primitive(JsonObject item, String name) {
+        JsonElement value = item.get(name);
+        return value != null && value.isJsonPrimitive() ? value.getAsJsonPrimitive() : null;
+    }
+}
@@ -4,126 +4,112 @@ import com.sun.net.httpserver.HttpExchange;
 import ru.practicum.manager.TaskManager;
 import ru.practicum.model.Epic;
 import ru.practicum.model.Subtask;
+import ru.practicum.model.TaskType;
+import ru.practicum.server.JsonView;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
 
-public class EpicHandler extends BaseHttpHandler {
+public final class EpicHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public EpicHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        router.add(HttpMethod.GET, "/epics", (exchange, ids) -> handleGetAll(exchange))
+                .add(HttpMethod.GET, "/epics/{id}", (exchange, ids) -> handleGetById(exchange, ids[0]))
+                .add(HttpMethod.GET, "/epics/{id}/subtasks", (exchange, ids) -> handleGetSubtasks(exchange, ids[0]))
+                .add(HttpMethod.POST, "/epics", (exchange, ids) -> handleCreate(exchange))
+                .add(HttpMethod.POST, "/epics/{id}", (exchange, ids) -> handleUpdate(exchange, ids[0]))
+                .add(HttpMethod.DELETE, "/epics", (exchange, ids) -> handleDeleteAll(exchange))
+                .add(HttpMethod.DELETE, "/epics/{id}", (exchange, ids) -> handleDelete(exchange, ids[0]));
     }
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        try {
-            String path = exchange.getRequestURI().getPath();
-            HttpMethod httpMethod;
-
-            try {
-                httpMethod = HttpMethod.valueOf(exchange.getRequestMethod());
-            } catch (IllegalArgumentException e) {
-                sendResponse(exchange, "{\"error\":\"Method not allowed\"}", 405);
-                return;
-            }
-
-            switch (httpMethod) {
-                case GET -> {
-                    if ("/epics".equals(path)) {
-                        List<Epic> epics = taskManager.getAllEpics();
-                        String json = GSON.toJson(epics);
-                        sendText(exchange, json);
-                        return;
-                    }
-
-                    if (Pattern.matches("/epics/\\d+", path)) {
-                        int id = Integer.parseInt(path.split("/")[2]);
-                        Epic epic = taskManager.getEpicById(id);
-                        if (epic == null) {
-                            sendNotFound(exchange);
-                            return;
-                        }
-                        String json = GSON.toJson(epic);
-                        sendText(exchange, json);
-                        return;
-                    }
-
-                    if (Pattern.matches("/epics/\\d+/subtasks", path)) {
-                        int id = Integer.parseInt(path.split("/")[2]);
-                        Epic epic = taskManager.getEpicById(id);
-                        if (epic == null) {
-                            sendNotFound(exchange);
-                            return;
-                        }
-                        List<Subtask> subtasks = epic.getSubtasks();
-                        String json = GSON.toJson(subtasks);
-                        sendText(exchange, json);
-                        return;
-                    }
-
-                    sendResponse(exchange, "{\"error\":\"Not found\"}", 404);
-                    return;
-                }
-
-                case POST -> {
-                    if ("/epics".equals(path)) {
-                        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
-                        Epic newEpic = GSON.fromJson(body, Epic.class);
-                        newEpic.setTaskManager(taskManager);
-                        Epic epic = taskManager.createEpic(newEpic);
-                        int id = epic.getId();
-                        sendResponse(exchange, "{\"id\":" + id + "}", 201);
-                        return;
-                    }
+    private void handleGetAll(HttpExchange exchange) throws IOException {
+        // Статус и время эпика считаются по подзадачам, поэтому его ETag меняется и вместе с ними
+        long version = taskManager.getVersion(TaskType.EPIC) + taskManager.getVersion(TaskType.SUBTASK);
+        if (checkNotModified(exchange, "epics", version)) {
+            return;
+        }
+        Map<String, String> params = queryParams(exchange);
+        // Подзадачи в списке раскрываются только по ?expand=subtasks
+        JsonView view = parseView(params, true);
+        if (view == null) {
+            sendBadRequest(exchange);
+            return;
+        }
+        if (params.containsKey("status")) {
+            sendFiltered(exchange, params, view, taskManager::getEpicsByStatus);
+            return;
+        }
+        if (isPageRequest(params)) {
+            sendPage(exchange, params, view, taskManager::getEpicsPage);
+            return;
+        }
+        List<Epic> epics = taskManager.getAllEpics();
+        sendJson(exchange, epics, view);
+    }
 
-                    if (Pattern.matches("/epics/\\d+", path)) {
-                        int id = Integer.parseInt(path.split("/")[2]);
-                        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
-                        Epic epic = GSON.fromJson(body, Epic.class);
-                        epic.setId(id);
-                        if (!taskManager.updateEpic(epic)) {
-                            sendNotFound(exchange);
-                            return;
-                        }
-                        exchange.sendResponseHeaders(204, -1);
-                        exchange.close();
-                        return;
-                    }
+    private void handleGetById(HttpExchange exchange, int id) throws IOException {
+        JsonView view = parseView(queryParams(exchange), false);
+        if (view == null) {
+            sendBadRequest(exchange);
+            return;
+        }
+        Epic epic = taskManager.getEpicById(id);
+        if (epic == null) {
+            sendNotFound(exchange);
+            return;
+        }
+        sendJson(exchange, epic, view.expandSubtasks() ? epic.getSubtasks().size() : 1, view);
+    }
 
-                    sendResponse(exchange, "{\"error\":\"Not found\"}", 404);
-                    return;
-                }
+    private void handleGetSubtasks(HttpExchange exchange, int id) throws IOException {
+        JsonView view = parseView(queryParams(exchange), true);
+        if (view == null) {
+            sendBadRequest(exchange);
+            return;
+        }
+        Epic epic = taskManager.getEpicById(id);
+        if (epic == null) {
+            sendNotFound(exchange);
+            return;
+        }
+        List<Subtask> subtasks = epic.getSubtasks();
+        sendJson(exchange, subtasks, view);
+    }
 
-                case DELETE -> {
-                    if ("/epics".equals(path)) {
-                        taskManager.deleteAllEpics();
-                        exchange.sendResponseHeaders(204, -1);
-                        exchange.close();
-                        return;
-                    }
+    private void handleCreate(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Epic newEpic = GSON.fromJson(body, Epic.class);
+        newEpic.setTaskManager(taskManager);
+        Epic epic = taskManager.createEpic(newEpic);
+        int id = epic.getId();
+        sendResponse(exchange, "{\"id\":" + id + "}", 201);
+    }
 
-                    if (Pattern.matches("/epics/\\d+", path)) {
-                        int id = Integer.parseInt(path.split("/")[2]);
-                        if (!taskManager.deleteEpic(id)) {
-                            sendNotFound(exchange);
-                            return;
-                        }
-                        exchange.sendResponseHeaders(204, -1);
-                        exchange.close();
-                        return;
-                    }
+    private void handleUpdate(HttpExchange exchange, int id) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        Epic epic = GSON.fromJson(body, Epic.class);
+        epic.setId(id);
+        if (!taskManager.updateEpic(epic)) {
+            sendNotFound(exchange);
+            return;
+        }
+        sendNoContent(exchange);
+    }
 
-                    sendResponse(exchange, "{\"error\":\"Not found\"}", 404);
-                    return;
-                }
+    private void handleDeleteAll(HttpExchange exchange) throws IOException {
+        taskManager.deleteAllEpics();
+        sendNoContent(exchange);
+    }
 
-                default -> sendResponse(exchange, "{\"error\":\"Method not allowed\"}", 405);
-            }
-        } catch (Exception e) {
-            sendServerError(exchange);
+    private void handleDelete(HttpExchange exchange, int id) throws IOException {
+        if (!taskManager.deleteEpic(id)) {
+            sendNotFound(exchange);
+            return;
         }
+        sendNoContent(exchange);
     }
-}
\ No newline at end of file
+}
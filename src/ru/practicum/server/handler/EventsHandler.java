@@ -0,0 +1,143 @@
+package ru.practicum.server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.manager.TaskEvent;
+import ru.practicum.manager.TaskEventBus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Лента изменений в формате Server-Sent Events: GET /events держит соединение открытым и пишет по событию
+ * шины менеджера на каждое изменение (event — вид изменения, data — {@link TaskEvent} в JSON).
+ * Обработчик только отправляет заголовки и сразу возвращается, так что поток-диспетчер HttpServer
+ * не занят; каждому подписчику пишет свой виртуальный поток из своей очереди. Очередь ограничена:
+ * если клиент читает медленнее, чем идут изменения, накопленные события отбрасываются и приходит
+ * событие reset — клиенту нужно перечитать списки. Пока изменений нет, раз в HEARTBEAT_SECONDS
+ * уходит комментарий, по ошибке записи которого обнаруживается отключившийся клиент.
+ * Размер очереди и интервал задаются свойствами kanban.events.buffer и kanban.events.heartbeat (секунды).
+ */
+public final class EventsHandler extends BaseHttpHandler implements AutoCloseable {
+    private static final int BUFFER_SIZE = Integer.getInteger("kanban.events.buffer", 256);
+    private static final int HEARTBEAT_SECONDS = Integer.getInteger("kanban.events.heartbeat", 15);
+    // Сколько событий из очереди пишется перед одним flush
+    private static final int MAX_EVENTS_PER_FLUSH = 64;
+
+    private final TaskEventBus eventBus;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    public EventsHandler(TaskEventBus eventBus) {
+        this.eventBus = eventBus;
+        router.add(HttpMethod.GET, "/events", (h, ids) -> handleSubscribe(h));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Закрывает все открытые ленты; новые подписки после этого не принимаются
+    @Override
+    public void close() {
+        closed = true;
+        subscribers.forEach(Subscriber::stop);
+    }
+
+    private void handleSubscribe(HttpExchange h) throws IOException {
+        if (closed) {
+            sendResponse(h, "{\"error\":\"Service unavailable\"}", 503);
+            return;
+        }
+        h.getResponseHeaders().add("Content-Type", "text/event-stream;charset=utf-8");
+        h.getResponseHeaders().add("Cache-Control", "no-cache");
+        h.sendResponseHeaders(200, 0);
+
+        Subscriber subscriber = new Subscriber(h);
+        subscribers.add(subscriber);
+        subscriber.unsubscribe = eventBus.subscribe(subscriber);
+        subscriber.thread = Thread.ofVirtual().name("sse-subscriber").start(subscriber::run);
+        if (closed) {
+            subscriber.stop();
+        }
+    }
+
+    private final class Subscriber implements Consumer<TaskEvent> {
+        private final HttpExchange exchange;
+        private final BlockingQueue<TaskEvent> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private volatile Runnable unsubscribe;
+        private volatile Thread thread;
+
+        Subscriber(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        // Вызывается шиной в потоке изменения, поэтому никогда не ждёт
+        @Override
+        public void accept(TaskEvent event) {
+            if (!buffer.offer(event)) {
+                overflowed.set(true);
+            }
+        }
+
+        void stop() {
+            Thread writer = thread;
+            if (writer != null) {
+                writer.interrupt();
+            }
+        }
+
+        void run() {
+            List<TaskEvent> batch = new ArrayList<>(MAX_EVENTS_PER_FLUSH);
+            try (OutputStream out = exchange.getResponseBody()) {
+                write(out, ": connected\n\n");
+                while (!closed && !Thread.currentThread().isInterrupted()) {
+                    if (overflowed.getAndSet(false)) {
+                        buffer.clear();
+                        write(out, "event: reset\ndata: {}\n\n");
+                        continue;
+                    }
+                    TaskEvent event = buffer.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                    if (event == null) {
+                        write(out, ": heartbeat\n\n");
+                        continue;
+                    }
+                    batch.add(event);
+                    buffer.drainTo(batch, MAX_EVENTS_PER_FLUSH - 1);
+                    StringBuilder text = new StringBuilder();
+                    for (TaskEvent item : batch) {
+                        text.append("id: ").append(item.getSequence())
+                                .append("\nevent: ").append(item.getKind().name().toLowerCase())
+                                .append("\ndata: ").append(GSON.toJson(item))
+                                .append("\n\n");
+                    }
+                    batch.clear();
+                    write(out, text.toString());
+                }
+            } catch (IOException e) {
+                // Клиент отключился
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                unsubscribe.run();
+                subscribers.remove(this);
+                exchange.close();
+            }
+        }
+
+        private void write(OutputStream out, String text) throws IOException {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+}
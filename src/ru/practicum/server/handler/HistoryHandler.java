@@ -1,27 +1,59 @@
 package ru.practicum.server.handler;
 
 import com.sun.net.httpserver.HttpExchange;
+import ru.practicum.manager.HistoryManager;
 import ru.practicum.manager.TaskManager;
 import ru.practicum.model.Task;
+import ru.practicum.server.JsonView;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-public class HistoryHandler extends BaseHttpHandler {
+public final class HistoryHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public HistoryHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        router.add(HttpMethod.GET, "/history", (h, ids) -> handleGetHistory(h))
+                .add(HttpMethod.GET, "/history/stats", (h, ids) -> handleGetStats(h));
     }
 
-    @Override
-    public void handle(HttpExchange h) throws IOException {
-        if ("GET".equals(h.getRequestMethod()) && "/history".equals(h.getRequestURI().getPath())) {
+    // ?limit=N отдаёт только N последних просмотров
+    private void handleGetHistory(HttpExchange h) throws IOException {
+        Map<String, String> params = queryParams(h);
+        JsonView view = parseView(params, true);
+        if (view == null) {
+            sendBadRequest(h);
+            return;
+        }
+        String limitParam = params.get("limit");
+        if (limitParam == null) {
             List<Task> history = taskManager.getHistory();
-            String json = GSON.toJson(history);
-            sendText(h, json);
-        } else {
-            sendResponse(h, "{\"error\":\"Method not allowed\"}", 405);
+            sendJson(h, history, view);
+            return;
+        }
+        int limit;
+        try {
+            limit = Integer.parseInt(limitParam);
+        } catch (NumberFormatException e) {
+            sendBadRequest(h);
+            return;
+        }
+        if (limit < 0) {
+            sendBadRequest(h);
+            return;
         }
+        sendJson(h, taskManager.getHistory(limit), view);
+    }
+
+    private void handleGetStats(HttpExchange h) throws IOException {
+        HistoryManager historyManager = taskManager.getHistoryManager();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", historyManager.size());
+        stats.put("capacity", historyManager.getCapacity());
+        stats.put("estimatedBytes", historyManager.estimateMemoryUsage());
+        sendText(h, GSON.toJson(stats));
     }
-}
\ No newline at end of file
+}
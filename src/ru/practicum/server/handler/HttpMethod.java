@@ -3,5 +3,15 @@ package ru.practicum.server.handler;
 public enum HttpMethod {
     GET,
     POST,
-    DELETE
-}
\ No newline at end of file
+    DELETE;
+
+    // В отличие от valueOf не бросает исключение на незнакомый метод
+    public static HttpMethod of(String method) {
+        return switch (method) {
+            case "GET" -> GET;
+            case "POST" -> POST;
+            case "DELETE" -> DELETE;
+            default -> null;
+        };
+    }
+}
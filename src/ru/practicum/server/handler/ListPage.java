@@ -0,0 +1,27 @@
+package ru.practicum.server.handler;
+
+import com.google.gson.annotations.Expose;
+
+import java.util.List;
+
+// Страница списка: nextCursor — id последнего элемента, передаётся в after для следующей страницы;
+// на последней странице отсутствует
+public class ListPage<T> {
+    @Expose
+    private final List<T> items;
+    @Expose
+    private final Integer nextCursor;
+
+    public ListPage(List<T> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -3,25 +3,53 @@ package ru.practicum.server.handler;
 import com.sun.net.httpserver.HttpExchange;
 import ru.practicum.manager.TaskManager;
 import ru.practicum.model.Task;
+import ru.practicum.model.TaskType;
+import ru.practicum.server.JsonView;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
-public class PrioritizedHandler extends BaseHttpHandler {
+public final class PrioritizedHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public PrioritizedHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        router.add(HttpMethod.GET, "/prioritized", (h, ids) -> handleGetPrioritized(h));
     }
 
-    @Override
-    public void handle(HttpExchange h) throws IOException {
-        if ("GET".equals(h.getRequestMethod()) && "/prioritized".equals(h.getRequestURI().getPath())) {
-            List<Task> prioritized = taskManager.getPrioritizedTasks();
-            String json = GSON.toJson(prioritized);
-            sendText(h, json);
-        } else {
-            sendResponse(h, "{\"error\":\"Method not allowed\"}", 405);
+    // ?from=&to= (ISO, как в JSON задач) ограничивают ответ задачами, пересекающими промежуток;
+    // любую из границ можно опустить
+    private void handleGetPrioritized(HttpExchange h) throws IOException {
+        long version = taskManager.getVersion(TaskType.TASK) + taskManager.getVersion(TaskType.SUBTASK);
+        if (checkNotModified(h, "prioritized", version)) {
+            return;
         }
+        Map<String, String> params = queryParams(h);
+        JsonView view = parseView(params, true);
+        if (view == null) {
+            sendBadRequest(h);
+            return;
+        }
+        if (!params.containsKey("from") && !params.containsKey("to")) {
+            sendJson(h, taskManager.getPrioritizedTasks(), view);
+            return;
+        }
+
+        List<Task> prioritized;
+        try {
+            prioritized = taskManager.getPrioritizedTasks(parseBound(params.get("from")),
+                    parseBound(params.get("to")));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            sendBadRequest(h);
+            return;
+        }
+        sendJson(h, prioritized, view);
+    }
+
+    private static LocalDateTime parseBound(String value) {
+        return value == null || value.isEmpty() ? null : LocalDateTime.parse(value);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+package ru.practicum.server.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Маршрутизатор запросов по методу и пути. Шаблоны вида "/epics/{id}/subtasks" разбираются на сегменты
+ * один раз при регистрации; при диспетчеризации путь сравнивается с ними посимвольно, без регулярных
+ * выражений и split. Сегмент {имя} совпадает только с неотрицательным целым числом, которое передаётся
+ * обработчику в массиве ids в порядке следования в шаблоне.
+ */
+public class Router {
+    public enum Result {
+        MATCHED,
+        NOT_FOUND,
+        METHOD_NOT_ALLOWED
+    }
+
+    @FunctionalInterface
+    public interface RouteHandler {
+        void handle(HttpExchange exchange, int[] ids) throws IOException;
+    }
+
+    private static final int[] NO_IDS = new int[0];
+
+    private record Route(String[] segments, int idCount, RouteHandler handler) {
+    }
+
+    private final Map<HttpMethod, List<Route>> routes = new EnumMap<>(HttpMethod.class);
+
+    public Router add(HttpMethod method, String template, RouteHandler handler) {
+        if (!template.startsWith("/")) {
+            throw new IllegalArgumentException("Шаблон пути должен начинаться с '/': " + template);
+        }
+        List<String> segments = new ArrayList<>();
+        int idCount = 0;
+        int start = 1;
+        while (start <= template.length()) {
+            int end = template.indexOf('/', start);
+            if (end < 0) {
+                end = template.length();
+            }
+            String segment = template.substring(start, end);
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                segments.add(null);
+                idCount++;
+            } else {
+                segments.add(segment);
+            }
+            start = end + 1;
+        }
+        routes.computeIfAbsent(method, key -> new ArrayList<>())
+                .add(new Route(segments.toArray(new String[0]), idCount, handler));
+        return this;
+    }
+
+    public Result dispatch(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        HttpMethod method = HttpMethod.of(exchange.getRequestMethod());
+
+        if (method != null) {
+            for (Route route : routes.getOrDefault(method, List.of())) {
+                int[] ids = route.idCount() == 0 ? NO_IDS : new int[route.idCount()];
+                if (matches(route, path, ids)) {
+                    route.handler().handle(exchange, ids);
+                    return Result.MATCHED;
+                }
+            }
+        }
+
+        // Путь известен, но не для этого метода
+        for (Map.Entry<HttpMethod, List<Route>> entry : routes.entrySet()) {
+            if (entry.getKey() == method) {
+                continue;
+            }
+            for (Route route : entry.getValue()) {
+                if (matches(route, path, new int[route.idCount()])) {
+                    return Result.METHOD_NOT_ALLOWED;
+                }
+            }
+        }
+        return method == null ? Result.METHOD_NOT_ALLOWED : Result.NOT_FOUND;
+    }
+
+    private static boolean matches(Route route, String path, int[] ids) {
+        if (path.isEmpty() || path.charAt(0) != '/') {
+            return false;
+        }
+        String[] segments = route.segments();
+        int position = 1;
+        int idIndex = 0;
+
+        for (int i = 0; i < segments.length; i++) {
+            int end = path.indexOf('/', position);
+            if (end < 0) {
+                end = path.length();
+            }
+            // Сегментов в пути меньше или больше, чем в шаблоне
+            if (position > path.length() || (i == segments.length - 1) != (end == path.length())) {
+                return false;
+            }
+
+            String literal = segments[i];
+            if (literal == null) {
+                int id = parseId(path, position, end);
+                if (id < 0) {
+                    return false;
+                }
+                ids[idIndex++] = id;
+            } else if (end - position != literal.length()
+                    || !path.regionMatches(position, literal, 0, literal.length())) {
+                return false;
+            }
+            position = end + 1;
+        }
+        return true;
+    }
+
+    // Разбирает десятичное число в path[start, end); -1, если там не только цифры или число не влезает в int
+    private static int parseId(String path, int start, int end) {
+        if (start == end) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE) {
+                return -1;
+            }
+        }
+        return (int) value;
+    }
+}
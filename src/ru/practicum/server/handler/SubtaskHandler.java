@@ -4,121 +4,109 @@ import com.sun.net.httpserver.HttpExchange;
 import ru.practicum.manager.ManagerSaveException;
 import ru.practicum.manager.TaskManager;
 import ru.practicum.model.Subtask;
+import ru.practicum.model.TaskType;
+import ru.practicum.server.JsonView;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
-public class SubtaskHandler extends BaseHttpHandler {
+public final class SubtaskHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public SubtaskHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        router.add(HttpMethod.GET, "/subtasks", (exchange, ids) -> handleGetAll(exchange))
+                .add(HttpMethod.GET, "/subtasks/{id}", (exchange, ids) -> handleGetById(exchange, ids[0]))
+                .add(HttpMethod.POST, "/subtasks", (exchange, ids) -> handleCreate(exchange))
+                .add(HttpMethod.POST, "/subtasks/{id}", (exchange, ids) -> handleUpdate(exchange, ids[0]))
+                .add(HttpMethod.DELETE, "/subtasks", (exchange, ids) -> handleDeleteAll(exchange))
+                .add(HttpMethod.DELETE, "/subtasks/{id}", (exchange, ids) -> handleDelete(exchange, ids[0]));
     }
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        try {
-            String path = exchange.getRequestURI().getPath();
-            String method = exchange.getRequestMethod();
-
-            switch (method) {
-                case "GET" -> {
-                    if ("/subtasks".equals(path)) {
-                        List<Subtask> subtasks = taskManager.getAllSubtasks();
-                        String json = GSON.toJson(subtasks);
-                        sendText(exchange, json);
-                        return;
-                    }
-
-                    if (path.matches("/subtasks/\\d+")) {
-                        int id = Integer.parseInt(path.split("/")[2]);
-                        Subtask subtask = taskManager.getSubtaskById(id);
-                        if (subtask == null) {
-                            sendNotFound(exchange);
-                            return;
-                        }
-                        String json = GSON.toJson(subtask);
-                        sendText(exchange, json);
-                        return;
-                    }
-
-                    sendResponse(exchange, "{\"error\":\"Not found\"}", 404);
-                }
-
-                case "POST" -> {
-                    if ("/subtasks".equals(path)) {
-                        try {
-                            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
-                            Subtask newSubtask = GSON.fromJson(body, Subtask.class);
-                            newSubtask.setTaskManager(taskManager);
-                            Subtask subtask = taskManager.createSubtask(newSubtask);
-                            int id = subtask.getId();
-
-                            sendResponse(exchange, GSON.toJson(Map.of("id", id)), 201);
-                            return;
-                        } catch (ManagerSaveException e) {
-                            sendHasOverlaps(exchange);
-                            return;
-                        }
-                    }
-
-                    if (path.matches("/subtasks/\\d+")) {
-                        try {
-                            int id = Integer.parseInt(path.split("/")[2]);
-                            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
-                            Subtask subtask = GSON.fromJson(body, Subtask.class);
-                            subtask.setId(id);
-                            boolean updated = taskManager.updateSubtask(subtask, id);
+    private void handleGetAll(HttpExchange exchange) throws IOException {
+        if (checkNotModified(exchange, "subtasks", taskManager.getVersion(TaskType.SUBTASK))) {
+            return;
+        }
+        Map<String, String> params = queryParams(exchange);
+        JsonView view = parseView(params, true);
+        if (view == null) {
+            sendBadRequest(exchange);
+            return;
+        }
+        if (params.containsKey("status")) {
+            sendFiltered(exchange, params, view, taskManager::getSubtasksByStatus);
+            return;
+        }
+        if (isPageRequest(params)) {
+            sendPage(exchange, params, view, taskManager::getSubtasksPage);
+            return;
+        }
+        List<Subtask> subtasks = taskManager.getAllSubtasks();
+        sendJson(exchange, subtasks, view);
+    }
 
-                            if (!updated) {
-                                if (taskManager.getSubtaskById(id) == null) {
-                                    sendNotFound(exchange);
-                                } else {
-                                    sendHasOverlaps(exchange);
-                                }
-                                return;
-                            }
+    private void handleGetById(HttpExchange exchange, int id) throws IOException {
+        JsonView view = parseView(queryParams(exchange), false);
+        if (view == null) {
+            sendBadRequest(exchange);
+            return;
+        }
+        Subtask subtask = taskManager.getSubtaskById(id);
+        if (subtask == null) {
+            sendNotFound(exchange);
+            return;
+        }
+        sendJson(exchange, subtask, 1, view);
+    }
 
-                            exchange.sendResponseHeaders(204, -1);
-                            exchange.close();
-                            return;
-                        } catch (ManagerSaveException e) {
-                            sendHasOverlaps(exchange);
-                            return;
-                        }
-                    }
+    private void handleCreate(HttpExchange exchange) throws IOException {
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Subtask newSubtask = GSON.fromJson(body, Subtask.class);
+            newSubtask.setTaskManager(taskManager);
+            Subtask subtask = taskManager.createSubtask(newSubtask);
+            int id = subtask.getId();
+
+            sendResponse(exchange, GSON.toJson(Map.of("id", id)), 201);
+        } catch (ManagerSaveException e) {
+            sendHasOverlaps(exchange);
+        }
+    }
 
-                    sendResponse(exchange, "{\"error\":\"Not found\"}", 404);
+    private void handleUpdate(HttpExchange exchange, int id) throws IOException {
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Subtask subtask = GSON.fromJson(body, Subtask.class);
+            subtask.setId(id);
+            boolean updated = taskManager.updateSubtask(subtask, id);
+
+            if (!updated) {
+                if (taskManager.getSubtaskById(id) == null) {
+                    sendNotFound(exchange);
+                } else {
+                    sendHasOverlaps(exchange);
                 }
+                return;
+            }
 
-                case "DELETE" -> {
-                    if ("/subtasks".equals(path)) {
-                        taskManager.deleteAllSubtasks();
-                        exchange.sendResponseHeaders(204, -1);
-                        exchange.close();
-                        return;
-                    }
-
-                    if (path.matches("/subtasks/\\d+")) {
-                        int id = Integer.parseInt(path.split("/")[2]);
-                        if (!taskManager.removeSubtaskById(id)) {
-                            sendNotFound(exchange);
-                            return;
-                        }
-                        exchange.sendResponseHeaders(204, -1);
-                        exchange.close();
-                        return;
-                    }
+            sendNoContent(exchange);
+        } catch (ManagerSaveException e) {
+            sendHasOverlaps(exchange);
+        }
+    }
 
-                    sendResponse(exchange, "{\"error\":\"Not found\"}", 404);
-                }
+    private void handleDeleteAll(HttpExchange exchange) throws IOException {
+        taskManager.deleteAllSubtasks();
+        sendNoContent(exchange);
+    }
 
-                default -> sendResponse(exchange, "{\"error\":\"Method not allowed\"}", 405);
-            }
-        } catch (Exception e) {
-            sendServerError(exchange);
+    private void handleDelete(HttpExchange exchange, int id) throws IOException {
+        if (!taskManager.removeSubtaskById(id)) {
+            sendNotFound(exchange);
+            return;
         }
+        sendNoContent(exchange);
     }
-}
\ No newline at end of file
+}
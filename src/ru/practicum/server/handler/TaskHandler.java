@@ -4,91 +4,86 @@ import com.sun.net.httpserver.HttpExchange;
 import ru.practicum.manager.ManagerSaveException;
 import ru.practicum.manager.TaskManager;
 import ru.practicum.model.Task;
+import ru.practicum.model.TaskType;
+import ru.practicum.server.JsonView;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
-public class TaskHandler extends BaseHttpHandler {
+public final class TaskHandler extends BaseHttpHandler {
     private final TaskManager taskManager;
 
     public TaskHandler(TaskManager taskManager) {
         this.taskManager = taskManager;
+        router.add(HttpMethod.GET, "/tasks", (exchange, ids) -> handleGetAll(exchange))
+                .add(HttpMethod.GET, "/tasks/{id}", (exchange, ids) -> handleGetById(exchange, ids[0]))
+                .add(HttpMethod.POST, "/tasks", (exchange, ids) -> handleCreate(exchange))
+                .add(HttpMethod.DELETE, "/tasks", (exchange, ids) -> handleDeleteAll(exchange))
+                .add(HttpMethod.DELETE, "/tasks/{id}", (exchange, ids) -> handleDelete(exchange, ids[0]));
     }
 
-    @Override
-    public void handle(HttpExchange exchange) throws IOException {
-        try {
-            String path = exchange.getRequestURI().getPath();
-            String method = exchange.getRequestMethod();
-
-            switch (method) {
-                case "GET" -> {
-                    if ("/tasks".equals(path)) {
-                        List<Task> tasks = taskManager.getAllTasks();
-                        String json = GSON.toJson(tasks);
-                        sendText(exchange, json);
-                        return;
-                    }
-
-                    if (path.matches("/tasks/\\d+")) {
-                        int id = Integer.parseInt(path.split("/")[2]);
-                        Task task = taskManager.getTaskById(id);
-                        if (task == null) {
-                            sendNotFound(exchange);
-                            return;
-                        }
-                        String json = GSON.toJson(task);
-                        sendText(exchange, json);
-                        return;
-                    }
-
-                    sendResponse(exchange, "{\"error\":\"Not found\"}", 404);
-                }
+    private void handleGetAll(HttpExchange exchange) throws IOException {
+        if (checkNotModified(exchange, "tasks", taskManager.getVersion(TaskType.TASK))) {
+            return;
+        }
+        Map<String, String> params = queryParams(exchange);
+        JsonView view = parseView(params, true);
+        if (view == null) {
+            sendBadRequest(exchange);
+            return;
+        }
+        if (params.containsKey("status")) {
+            sendFiltered(exchange, params, view, taskManager::getTasksByStatus);
+            return;
+        }
+        if (isPageRequest(params)) {
+            sendPage(exchange, params, view, taskManager::getTasksPage);
+            return;
+        }
+        List<Task> tasks = taskManager.getAllTasks();
+        sendJson(exchange, tasks, view);
+    }
 
-                case "POST" -> {
-                    try {
-                        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
-                        Task newTask = GSON.fromJson(body, Task.class);
-                        newTask.setTaskManager(taskManager);
-                        Task task = taskManager.createTask(newTask);
-                        int id = task.getId();
+    private void handleGetById(HttpExchange exchange, int id) throws IOException {
+        JsonView view = parseView(queryParams(exchange), false);
+        if (view == null) {
+            sendBadRequest(exchange);
+            return;
+        }
+        Task task = taskManager.getTaskById(id);
+        if (task == null) {
+            sendNotFound(exchange);
+            return;
+        }
+        sendJson(exchange, task, 1, view);
+    }
 
-                        sendResponse(exchange, GSON.toJson(Map.of("id", id)), 201);
-                        return;
-                    } catch (ManagerSaveException e) {
-                        sendHasOverlaps(exchange);
-                        return;
-                    }
-                }
+    private void handleCreate(HttpExchange exchange) throws IOException {
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Task newTask = GSON.fromJson(body, Task.class);
+            newTask.setTaskManager(taskManager);
+            Task task = taskManager.createTask(newTask);
+            int id = task.getId();
 
-                case "DELETE" -> {
-                    if ("/tasks".equals(path)) {
-                        taskManager.deleteAllTasks();
-                        exchange.sendResponseHeaders(204, -1);
-                        exchange.close();
-                        return;
-                    }
+            sendResponse(exchange, GSON.toJson(Map.of("id", id)), 201);
+        } catch (ManagerSaveException e) {
+            sendHasOverlaps(exchange);
+        }
+    }
 
-                    if (Pattern.matches("/tasks/\\d+", path)) {
-                        int id = Integer.parseInt(path.split("/")[2]);
-                        if (!taskManager.deleteTask(id)) {
-                            sendNotFound(exchange);
-                            return;
-                        }
-                        exchange.sendResponseHeaders(204, -1);
-                        exchange.close();
-                        return;
-                    }
-                    sendResponse(exchange, "{\"error\":\"Not found\"}", 404);
-                }
+    private void handleDeleteAll(HttpExchange exchange) throws IOException {
+        taskManager.deleteAllTasks();
+        sendNoContent(exchange);
+    }
 
-                default -> sendResponse(exchange, "{\"error\":\"Method not allowed\"}", 405);
-            }
-        } catch (Exception e) {
-            sendServerError(exchange);
+    private void handleDelete(HttpExchange exchange, int id) throws IOException {
+        if (!taskManager.deleteTask(id)) {
+            sendNotFound(exchange);
+            return;
         }
+        sendNoContent(exchange);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package model;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import ru.practicum.manager.HistoryManager;
 import ru.practicum.manager.Managers;
 import ru.practicum.manager.TaskManager;
@@ -9,6 +11,8 @@ import ru.practicum.model.Epic;
 import ru.practicum.model.Status;
 import ru.practicum.model.Subtask;
 import ru.practicum.model.Task;
+import ru.practicum.server.DurationAdapter;
+import ru.practicum.server.LocalDateTimeAdapter;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -299,5 +303,46 @@ class EpicTest {
         assertNotNull(manager.getEpicById(epic2.getId()));
         assertNotNull(manager.getSubtaskById(subtask3.getId()));
     }
-}
 
+    @Test
+    public void testReplacingSubtaskWithSameIdRefreshesAggregates() {
+        List<Subtask> before = epic1.getSubtasks();
+        Subtask doneCopy = new Subtask(subtask1.getTitle(), subtask1.getDescription(), null, epic1.getId(),
+                Status.DONE, startTime4, duration4);
+        doneCopy.setId(subtask1.getId());
+
+        epic1.addSubtask(doneCopy);
+
+        assertEquals(List.of(doneCopy, subtask2), epic1.getSubtasks(), "Подзадача заменяется на своём месте");
+        assertEquals(1, epic1.getSubtaskCount(Status.DONE));
+        assertEquals(Status.IN_PROGRESS, epic1.calculateStatus());
+        assertEquals(startTime4.plus(duration4), epic1.getEndTime());
+        assertEquals(List.of(subtask1, subtask2), before, "Выданный ранее список — неизменяемый снимок");
+    }
+
+    @Test
+    public void testSubtaskListFromReflectiveJsonIsAdopted() {
+        Gson gson = new GsonBuilder()
+                .excludeFieldsWithoutExposeAnnotation()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .create();
+        String json = """
+                {"title": "Эпик", "id": 100, "subtasks": [
+                  {"epicId": 100, "title": "A", "id": 101, "status": "DONE",
+                   "startTime": "2027-02-01T10:00:00", "duration": 60},
+                  {"epicId": 100, "title": "B", "id": 102, "status": "NEW"},
+                  {"epicId": 100, "title": "A2", "id": 101, "status": "DONE"}
+                ]}
+                """;
+
+        Epic parsed = gson.fromJson(json, Epic.class);
+
+        assertEquals(2, parsed.getSubtasks().size(), "Повтор id заменяет подзадачу, а не дублирует её");
+        assertEquals("A2", parsed.getSubtasks().get(0).getTitle());
+        assertEquals(Status.IN_PROGRESS, parsed.calculateStatus());
+        assertNull(parsed.getStartTime(), "У заменённой подзадачи нет времени");
+        parsed.removeSubtaskById(101);
+        assertEquals(Status.NEW, parsed.calculateStatus());
+    }
+}
@@ -12,6 +12,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class EpicTest2 {
     TaskManager manager = Managers.getDefault();
@@ -132,4 +133,40 @@ public class EpicTest2 {
         assertEquals(Status.IN_PROGRESS, epic2.getStatus(), "Cтатус эпика должен быть IN_PROGRESS");
         assertEquals(Status.IN_PROGRESS, epic2.getStatus(), "Cтатус эпика должен быть IN_PROGRESS");
     }
+
+    @Test
+    void testTimeAggregatesFollowSubtaskChanges() {
+        LocalDateTime startTime1 = LocalDateTime.of(2027, 3, 1, 1, 0);
+        LocalDateTime startTime2 = LocalDateTime.of(2027, 3, 3, 5, 0);
+        LocalDateTime startTime3 = LocalDateTime.of(2027, 3, 5, 10, 0);
+
+        Epic epic1 = manager.createEpic(new Epic("Учить английский", "Очень страшная задача", manager,
+                Status.NEW));
+        assertNull(epic1.getStartTime(), "У эпика без подзадач нет времени начала");
+        assertNull(epic1.getDuration(), "У эпика без подзадач нет длительности");
+
+        Subtask subtask1 = manager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы",
+                manager, epic1.getId(), Status.NEW, startTime1, Duration.ofHours(1)));
+        Subtask subtask2 = manager.createSubtask(new Subtask("Разбираться в IDEA", "Переводить все " +
+                "встреченные слова", manager, epic1.getId(), Status.DONE, startTime2, Duration.ofHours(2)));
+
+        assertEquals(startTime1, epic1.getStartTime());
+        assertEquals(startTime2.plusHours(2), epic1.getEndTime());
+        assertEquals(Duration.ofHours(3), epic1.getDuration());
+        assertEquals(Status.IN_PROGRESS, epic1.getStatus());
+
+        Subtask movedSubtask = new Subtask("Найти репетитора", "Почитать отзывы", manager, epic1.getId(),
+                Status.DONE, startTime3, Duration.ofHours(3));
+        manager.updateSubtask(movedSubtask, subtask1.getId());
+
+        assertEquals(startTime2, epic1.getStartTime(), "Начало эпика должно сдвинуться вслед за подзадачей");
+        assertEquals(startTime3.plusHours(3), epic1.getEndTime());
+        assertEquals(Duration.ofHours(5), epic1.getDuration());
+        assertEquals(Status.DONE, epic1.getStatus());
+
+        manager.removeSubtaskById(subtask2.getId());
+        assertEquals(startTime3, epic1.getStartTime());
+        assertEquals(Duration.ofHours(3), epic1.getDuration());
+        assertEquals(1, epic1.getSubtaskCount(Status.DONE));
+    }
 }
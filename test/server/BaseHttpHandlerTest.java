@@ -0,0 +1,88 @@
+package server;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.server.handler.BaseHttpHandler;
+import ru.practicum.server.handler.HttpMethod;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.AbstractList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaseHttpHandlerTest {
+    private HttpServer server;
+    private HttpClient client;
+    private int port;
+
+    // Список, который ломается посреди сериализации: длинный, чтобы ответ шёл потоком.
+    // Именованный класс, потому что анонимные Gson пишет как null
+    private static final class BrokenList extends AbstractList<String> {
+        @Override
+        public String get(int index) {
+            if (index == 80) {
+                throw new IllegalStateException("Сбой при чтении элемента");
+            }
+            return "Элемент " + index;
+        }
+
+        @Override
+        public int size() {
+            return 100;
+        }
+    }
+
+    private static final class FailingHandler extends BaseHttpHandler {
+        FailingHandler() {
+            router.add(HttpMethod.GET, "/fail/stream", (h, ids) -> sendJson(h, new BrokenList()))
+                    .add(HttpMethod.GET, "/fail/early", (h, ids) -> {
+                        throw new IllegalStateException("Сбой до ответа");
+                    });
+        }
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        port = server.getAddress().getPort();
+        server.createContext("/fail", new FailingHandler());
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) {
+            server.stop(1);
+        }
+    }
+
+    @Test
+    void shouldAnswerServerErrorWhenNothingWasSent() throws Exception {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/fail/early")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+
+        assertEquals(500, response.statusCode());
+        assertTrue(response.body().contains("Internal server error"));
+    }
+
+    @Test
+    void shouldAbortStreamedResponseInsteadOfCompletingIt() {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + port + "/fail/stream")).GET().build();
+
+        assertThrows(IOException.class, () -> client.send(request, HttpResponse.BodyHandlers.ofString()),
+                "Обрезанный поток не должен выглядеть как завершённый ответ");
+    }
+}
@@ -0,0 +1,138 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.manager.InMemoryTaskManager;
+import ru.practicum.manager.TaskManager;
+import ru.practicum.model.Epic;
+import ru.practicum.model.Status;
+import ru.practicum.server.handler.BatchHandler;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchHandlerIntegrationTest {
+
+    private HttpServer server;
+    private HttpClient client;
+    private int port;
+    private TaskManager taskManager;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        port = server.getAddress().getPort();
+
+        taskManager = new InMemoryTaskManager();
+        server.createContext("/batch", new BatchHandler(taskManager));
+
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) {
+            server.stop(1);
+        }
+    }
+
+    @Test
+    void shouldApplyMixedBatchAndReturnIds() throws Exception {
+        Epic epic = taskManager.createEpic(new Epic("Эпик", "Описание", taskManager, Status.NEW));
+        String json = String.format("""
+                [
+                  {"op": "CREATE", "type": "TASK",
+                   "task": {"title": "Задача", "description": "Описание", "status": "NEW",
+                            "startTime": "2027-05-01T10:00", "duration": 60}},
+                  {"op": "CREATE", "type": "SUBTASK",
+                   "task": {"title": "Подзадача", "description": "Описание", "epicId": %d, "status": "DONE",
+                            "startTime": "2027-05-01T12:00", "duration": 30}}
+                ]
+                """, epic.getId());
+
+        HttpResponse<String> response = postBatch(json);
+        assertEquals(200, response.statusCode());
+
+        JsonObject result = new Gson().fromJson(response.body(), JsonObject.class);
+        assertTrue(result.get("applied").getAsBoolean());
+        JsonArray results = result.getAsJsonArray("results");
+        int taskId = results.get(0).getAsJsonObject().get("id").getAsInt();
+        int subtaskId = results.get(1).getAsJsonObject().get("id").getAsInt();
+        assertEquals("Задача", taskManager.getTaskById(taskId).getTitle());
+        assertEquals(Status.DONE, epic.getStatus(), "Подзадача из пакета должна пересчитать эпик");
+
+        HttpResponse<String> deleteResponse = postBatch(String.format("""
+                [{"op": "DELETE", "type": "SUBTASK", "id": %d}, {"op": "DELETE", "type": "TASK", "id": %d}]
+                """, subtaskId, taskId));
+        assertEquals(200, deleteResponse.statusCode());
+        assertTrue(taskManager.getAllTasks().isEmpty());
+        assertTrue(taskManager.getAllSubtasks().isEmpty());
+    }
+
+    @Test
+    void shouldRejectWholeBatchWithPerItemErrors() throws Exception {
+        String json = """
+                [
+                  {"op": "CREATE", "type": "TASK",
+                   "task": {"title": "Первая", "description": "Описание", "startTime": "2027-05-01T10:00",
+                            "duration": 60}},
+                  {"op": "CREATE", "type": "TASK",
+                   "task": {"title": "Вторая", "description": "Описание", "startTime": "2027-05-01T10:30",
+                            "duration": 60}}
+                ]
+                """;
+
+        HttpResponse<String> response = postBatch(json);
+        assertEquals(400, response.statusCode());
+
+        JsonObject result = new Gson().fromJson(response.body(), JsonObject.class);
+        assertFalse(result.get("applied").getAsBoolean());
+        assertTrue(result.getAsJsonArray("results").get(1).getAsJsonObject().has("error"));
+        assertTrue(taskManager.getAllTasks().isEmpty(), "Ни одна задача из отклонённого пакета не создаётся");
+
+        assertEquals(400, postBatch("[{\"op\": \"MOVE\", \"type\": \"TASK\", \"id\": 1}]").statusCode());
+        assertEquals(400, postBatch("{}").statusCode());
+    }
+
+    @Test
+    void shouldRejectOperationsWithMissingFields() throws Exception {
+        for (String json : new String[]{
+                "[{\"type\": \"TASK\", \"id\": 1}]",
+                "[{\"op\": \"DELETE\", \"id\": 1}]",
+                "[{\"op\": \"DELETE\", \"type\": \"TASK\"}]",
+                "[{\"op\": \"CREATE\", \"type\": \"TASK\"}]",
+                "[{\"op\": \"CREATE\", \"type\": \"TASK\", \"task\": \"Задача\"}]",
+                "[{\"op\": {}, \"type\": \"TASK\", \"id\": 1}]",
+                "[1]"}) {
+            HttpResponse<String> response = postBatch(json);
+            assertEquals(400, response.statusCode(), json);
+            assertEquals("{\"error\":\"Bad request\"}", response.body(), json);
+        }
+        assertTrue(taskManager.getAllTasks().isEmpty());
+    }
+
+    private HttpResponse<String> postBatch(String json) throws Exception {
+        return client.send(
+                HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:" + port + "/batch"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+    }
+}
@@ -2,6 +2,8 @@ package server;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +11,8 @@ import org.junit.jupiter.api.Test;
 import ru.practicum.manager.InMemoryTaskManager;
 import ru.practicum.manager.TaskManager;
 import ru.practicum.model.Epic;
+import ru.practicum.model.Status;
+import ru.practicum.model.Subtask;
 import ru.practicum.server.DurationAdapter;
 import ru.practicum.server.LocalDateTimeAdapter;
 import ru.practicum.server.handler.EpicHandler;
@@ -23,8 +27,10 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class EpicHandlerIntegrationTest {
@@ -96,7 +102,7 @@ public class EpicHandlerIntegrationTest {
 
     @Test
     void shouldDeleteEpic() throws Exception {
-        client.send(
+        HttpResponse<String> created = client.send(
                 HttpRequest.newBuilder()
                         .uri(URI.create("http://localhost:" + port + "/epics"))
                         .header("Content-Type", "application/json")
@@ -104,10 +110,11 @@ public class EpicHandlerIntegrationTest {
                         .build(),
                 HttpResponse.BodyHandlers.ofString()
         );
+        int id = GSON.fromJson(created.body(), JsonObject.class).get("id").getAsInt();
 
         HttpResponse<String> deleteResp = client.send(
                 HttpRequest.newBuilder()
-                        .uri(URI.create("http://localhost:" + port + "/epics/1"))
+                        .uri(URI.create("http://localhost:" + port + "/epics/" + id))
                         .DELETE()
                         .build(),
                 HttpResponse.BodyHandlers.ofString()
@@ -116,7 +123,7 @@ public class EpicHandlerIntegrationTest {
 
         HttpResponse<String> getResp = client.send(
                 HttpRequest.newBuilder()
-                        .uri(URI.create("http://localhost:" + port + "/epics/1"))
+                        .uri(URI.create("http://localhost:" + port + "/epics/" + id))
                         .GET()
                         .build(),
                 HttpResponse.BodyHandlers.ofString()
@@ -150,4 +157,70 @@ public class EpicHandlerIntegrationTest {
         assertEquals(405, response.statusCode());
         assertTrue(response.body().contains("Method not allowed"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRouteNestedPathsAndRejectMalformedIds() throws Exception {
+        int epicId = taskManager.createEpic(new Epic("Эпик", "Описание", taskManager,
+                Status.NEW)).getId();
+
+        for (String path : new String[]{"/epics/" + epicId + "/subtasks", "/epics/99999999999", "/epics/-1",
+                "/epics/" + epicId + "/", "/epics/" + epicId + "/tasks"}) {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder()
+                            .uri(URI.create("http://localhost:" + port + path))
+                            .GET()
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString()
+            );
+            assertEquals(path.endsWith("/subtasks") ? 200 : 404, response.statusCode(), path);
+        }
+    }
+
+    @Test
+    void shouldProjectFieldsAndExpandSubtasksOnRequest() throws Exception {
+        Epic epic = taskManager.createEpic(new Epic("Переезд", "Длинное описание эпика", taskManager,
+                Status.NEW));
+        taskManager.createSubtask(new Subtask("Коробки", "Купить коробки", taskManager,
+                epic.getId(), Status.NEW, LocalDateTime.of(2026, 4, 1, 10, 0),
+                Duration.ofMinutes(60)));
+
+        JsonObject listed = GSON.fromJson(get("/epics"), JsonArray.class)
+                .get(0).getAsJsonObject();
+        assertFalse(listed.has("subtasks"), "В списке подзадачи по умолчанию не раскрываются");
+        assertEquals("Длинное описание эпика", listed.get("description").getAsString());
+
+        JsonObject expanded = GSON.fromJson(get("/epics?expand=subtasks"),
+                JsonArray.class).get(0).getAsJsonObject();
+        assertEquals(1, expanded.getAsJsonArray("subtasks").size());
+
+        JsonObject projected = GSON.fromJson(get("/epics?fields=id,title,status&expand=subtasks"),
+                JsonArray.class).get(0).getAsJsonObject();
+        assertEquals(Set.of("id", "title", "status", "subtasks"), projected.keySet());
+        assertEquals(Set.of("id", "title", "status"),
+                projected.getAsJsonArray("subtasks").get(0).getAsJsonObject().keySet());
+
+        JsonObject single = GSON.fromJson(get("/epics/" + epic.getId()),
+                JsonObject.class);
+        assertEquals(1, single.getAsJsonArray("subtasks").size(), "Один эпик по умолчанию раскрывается");
+        single = GSON.fromJson(get("/epics/" + epic.getId() + "?expand="), JsonObject.class);
+        assertFalse(single.has("subtasks"));
+
+        for (String query : List.of("?fields=id,secret", "?fields=", "?expand=history")) {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/epics" + query))
+                            .GET().build(),
+                    HttpResponse.BodyHandlers.ofString()
+            );
+            assertEquals(400, response.statusCode(), query);
+        }
+    }
+
+    private String get(String path) throws Exception {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        assertEquals(200, response.statusCode(), path);
+        return response.body();
+    }
+}
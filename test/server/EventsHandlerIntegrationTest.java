@@ -0,0 +1,104 @@
+package server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.manager.InMemoryTaskManager;
+import ru.practicum.manager.TaskManager;
+import ru.practicum.server.HttpTaskServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventsHandlerIntegrationTest {
+    private HttpTaskServer server;
+    private HttpClient client;
+    private TaskManager taskManager;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        taskManager = new InMemoryTaskManager();
+        // Без пула: ленты не должны занимать единственный поток-диспетчер
+        server = new HttpTaskServer(taskManager, 0, 0, null);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    void shouldStreamChangesToEverySubscriber() throws Exception {
+        Iterator<String> first = subscribe();
+        Iterator<String> second = subscribe();
+        assertEquals(": connected", first.next());
+        assertEquals(": connected", second.next());
+
+        String taskJson = """
+                {"title": "Купить продукты", "description": "Хлеб", "status": "NEW"}
+                """;
+        HttpResponse<String> created = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + server.getPort() + "/tasks"))
+                        .POST(HttpRequest.BodyPublishers.ofString(taskJson)).build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        assertEquals(201, created.statusCode(), "Открытые ленты не должны блокировать другие запросы");
+
+        for (Iterator<String> lines : java.util.List.of(first, second)) {
+            assertTrue(nextEvent(lines).startsWith("id: "));
+            assertEquals("event: created", lines.next());
+            String data = lines.next();
+            assertTrue(data.startsWith("data: {") && data.contains("\"type\":\"TASK\""), data);
+        }
+    }
+
+    @Test
+    void shouldEndStreamsWhenServerStops() throws Exception {
+        Iterator<String> lines = subscribe();
+        assertEquals(": connected", lines.next());
+
+        server.stop();
+
+        CompletableFuture<Boolean> ended = CompletableFuture.supplyAsync(() -> {
+            while (lines.hasNext()) {
+                lines.next();
+            }
+            return true;
+        });
+        assertTrue(ended.get(5, TimeUnit.SECONDS));
+        assertFalse(lines.hasNext());
+    }
+
+    private Iterator<String> subscribe() throws Exception {
+        HttpResponse<Stream<String>> response = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + server.getPort() + "/events"))
+                        .GET().build(),
+                HttpResponse.BodyHandlers.ofLines()
+        );
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+        return response.body().iterator();
+    }
+
+    // Пропускает пустые строки-разделители и комментарии
+    private static String nextEvent(Iterator<String> lines) {
+        String line = lines.next();
+        while (line.isEmpty() || line.startsWith(":")) {
+            line = lines.next();
+        }
+        return line;
+    }
+}
@@ -209,6 +209,38 @@ public class HistoryHandlerIntegrationTest {
         assertTrue(response.body().contains("Method not allowed"));
     }
 
+    @Test
+    void shouldReturnLimitedHistoryAndStats() throws Exception {
+        int id1 = createSimpleTask("Задача 1", "Первая");
+        int id2 = createSimpleTask("Задача 2", "Вторая");
+        taskManager.getTaskById(id1);
+        taskManager.getTaskById(id2);
+
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:" + port + "/history?limit=1"))
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        assertEquals(200, response.statusCode());
+        Task[] limited = GSON.fromJson(response.body(), Task[].class);
+        assertEquals(1, limited.length);
+        assertEquals(id2, limited[0].getId());
+
+        HttpResponse<String> stats = client.send(
+                HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:" + port + "/history/stats"))
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        assertEquals(200, stats.statusCode());
+        JsonObject body = GSON.fromJson(stats.body(), JsonObject.class);
+        assertEquals(2, body.get("size").getAsInt());
+        assertTrue(body.get("estimatedBytes").getAsLong() > 0);
+    }
+
     private int createSimpleTask(String title, String description) throws Exception {
         String json = String.format("""
                 {
@@ -0,0 +1,60 @@
+package server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.manager.InMemoryTaskManager;
+import ru.practicum.server.HttpTaskServer;
+import ru.practicum.server.ServerExecutorType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HttpTaskServerIntegrationTest {
+    private HttpTaskServer server;
+
+    @AfterEach
+    void stopServer() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void shouldServeParallelRequestsOnConfiguredExecutor() throws Exception {
+        assertServesParallelRequests(ServerExecutorType.FIXED_POOL);
+    }
+
+    @Test
+    void shouldServeRequestsOnVirtualThreads() throws Exception {
+        assertServesParallelRequests(ServerExecutorType.VIRTUAL_THREADS);
+    }
+
+    private void assertServesParallelRequests(ServerExecutorType executorType) throws IOException {
+        server = new HttpTaskServer(new InMemoryTaskManager(), 0, 64, executorType.create(4));
+        server.start();
+        assertTrue(server.getPort() > 0, "Сервер должен занять свободный порт");
+
+        HttpClient client = HttpClient.newHttpClient();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + server.getPort() + "/tasks"))
+                    .GET()
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.join().statusCode());
+        }
+    }
+}
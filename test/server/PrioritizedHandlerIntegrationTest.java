@@ -153,6 +153,39 @@ public class PrioritizedHandlerIntegrationTest {
         assertFalse(titles.contains("Эпик"));
     }
 
+    @Test
+    void shouldReturnTasksOverlappingRange() throws Exception {
+        createTask("Задача 1", "Раньше промежутка", "2027-01-01T08:00", 30);
+        createTask("Задача 2", "Начата до промежутка", "2027-01-02T09:00", 120);
+        createTask("Задача 3", "Внутри промежутка", "2027-01-02T12:00", 45);
+        createTask("Задача 4", "Позже промежутка", "2027-01-03T10:00", 60);
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + port
+                        + "/prioritized?from=2027-01-02T10:00&to=2027-01-02T18:00"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+
+        List<String> titles = Arrays.stream(GSON.fromJson(response.body(), Task[].class))
+                .map(Task::getTitle)
+                .collect(Collectors.toList());
+        assertEquals(List.of("Задача 2", "Задача 3"), titles);
+
+        HttpResponse<String> openEnded = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + port + "/prioritized?from=2027-01-03T10:00"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(1, GSON.fromJson(openEnded.body(), Task[].class).length);
+
+        HttpResponse<String> reversed = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + port
+                        + "/prioritized?from=2027-01-03T10:00&to=2027-01-01T10:00"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, reversed.statusCode());
+    }
+
     @Test
     void shouldReturn405ForPostRequest() throws Exception {
         HttpRequest request = HttpRequest.newBuilder()
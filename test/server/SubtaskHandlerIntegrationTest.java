@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import ru.practicum.manager.InMemoryTaskManager;
 import ru.practicum.manager.TaskManager;
 import ru.practicum.model.Epic;
+import ru.practicum.model.Status;
 import ru.practicum.model.Subtask;
 import ru.practicum.server.DurationAdapter;
 import ru.practicum.server.LocalDateTimeAdapter;
@@ -193,4 +194,30 @@ public class SubtaskHandlerIntegrationTest {
         assertTrue(body.contains("2027-10-01T08:00"));
         assertTrue(body.contains("\"duration\":3600"));
     }
+
+    @Test
+    void shouldFilterSubtasksByStatus() throws Exception {
+        Epic epic = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+        LocalDateTime startTime = LocalDateTime.of(2027, 11, 1, 8, 0);
+        taskManager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы", taskManager, epic.getId(),
+                Status.DONE, startTime, Duration.ofHours(1)));
+        Subtask inProgress = taskManager.createSubtask(new Subtask("Разбираться в IDEA", "Переводить слова",
+                taskManager, epic.getId(), Status.IN_PROGRESS, startTime.plusHours(2), Duration.ofHours(1)));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + port + "/subtasks?status=IN_PROGRESS"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        Subtask[] subtasks = GSON.fromJson(response.body(), Subtask[].class);
+        assertEquals(1, subtasks.length);
+        assertEquals(inProgress.getId(), subtasks[0].getId());
+
+        HttpResponse<String> badStatus = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + port + "/subtasks?status=LATER"))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, badStatus.statusCode());
+    }
 }
@@ -0,0 +1,113 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.manager.Managers;
+import ru.practicum.manager.TaskManager;
+import ru.practicum.model.Epic;
+import ru.practicum.model.Status;
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+import ru.practicum.server.DurationAdapter;
+import ru.practicum.server.EpicAdapter;
+import ru.practicum.server.IsoDateTime;
+import ru.practicum.server.LocalDateTimeAdapter;
+import ru.practicum.server.SubtaskAdapter;
+import ru.practicum.server.TaskAdapter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TaskAdaptersTest {
+    private static final Gson REFLECTIVE = new GsonBuilder()
+            .excludeFieldsWithoutExposeAnnotation()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .create();
+    private static final Gson ADAPTERS = new GsonBuilder()
+            .excludeFieldsWithoutExposeAnnotation()
+            .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+            .registerTypeAdapter(Duration.class, new DurationAdapter())
+            .registerTypeAdapter(Task.class, new TaskAdapter())
+            .registerTypeAdapter(Subtask.class, new SubtaskAdapter())
+            .registerTypeAdapter(Epic.class, new EpicAdapter())
+            .create();
+
+    TaskManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = Managers.getDefault();
+    }
+
+    @Test
+    void shouldEncodeTaskLikeReflectiveGson() {
+        Task task = new Task("Задача", "Описание \"в кавычках\"", manager, Status.IN_PROGRESS,
+                LocalDateTime.of(2026, 3, 1, 9, 15, 30, 120_000_000), Duration.ofMinutes(90));
+        manager.createTask(task);
+
+        assertEquals(REFLECTIVE.toJson(task), ADAPTERS.toJson(task));
+    }
+
+    @Test
+    void shouldEncodeTaskWithoutTimeLikeReflectiveGson() {
+        Task task = new Task("Задача", null, manager, Status.NEW, null, null);
+        manager.createTask(task);
+
+        assertEquals(REFLECTIVE.toJson(task), ADAPTERS.toJson(task));
+    }
+
+    @Test
+    void shouldEncodeSubtaskAndEpicLikeReflectiveGson() {
+        Epic epic = new Epic("Эпик", "Описание", manager, Status.NEW);
+        manager.createEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", manager, epic.getId(), Status.DONE,
+                LocalDateTime.of(2026, 3, 1, 12, 0), Duration.ofMinutes(45));
+        manager.createSubtask(subtask);
+
+        assertEquals(REFLECTIVE.toJson(subtask), ADAPTERS.toJson(subtask));
+        // Снимок подзадач строится лениво; рефлексия читает поле напрямую, поэтому собираем его заранее
+        epic.getSubtasks();
+        assertEquals(REFLECTIVE.toJson(epic), ADAPTERS.toJson(epic));
+    }
+
+    @Test
+    void shouldSkipUnknownFieldsAndParseFractionalSeconds() {
+        String json = """
+                {"title": "Новая", "unknown": [1, {"a": 2}], "status": "DONE",
+                 "startTime": "2026-03-02T10:00:05.5", "duration": 15}
+                """;
+
+        Task parsed = ADAPTERS.fromJson(json, Task.class);
+
+        assertEquals("Новая", parsed.getTitle());
+        assertNull(parsed.getDescription());
+        assertEquals(Status.DONE, parsed.getStatus());
+        assertEquals(LocalDateTime.of(2026, 3, 2, 10, 0, 5, 500_000_000), parsed.getStartTime());
+        assertEquals(Duration.ofMinutes(15), parsed.getDuration());
+    }
+
+    @Test
+    void shouldReadSubtaskEpicId() {
+        Subtask parsed = ADAPTERS.fromJson("{\"epicId\": 7, \"title\": \"Подзадача\", \"id\": 3}", Subtask.class);
+
+        assertEquals(7, parsed.getEpicId());
+        assertEquals(3, parsed.getId());
+    }
+
+    @Test
+    void shouldFormatAndParseIsoDateTimeLikeFormatter() {
+        LocalDateTime whole = LocalDateTime.of(2026, 12, 31, 23, 59);
+        LocalDateTime fraction = LocalDateTime.of(2026, 1, 2, 3, 4, 5, 120_000_000);
+
+        assertEquals("2026-12-31T23:59:00", IsoDateTime.format(whole));
+        assertEquals("2026-01-02T03:04:05.12", IsoDateTime.format(fraction));
+        assertEquals(whole, IsoDateTime.parse("2026-12-31T23:59"));
+        assertEquals(fraction, IsoDateTime.parse("2026-01-02T03:04:05.12"));
+    }
+}
@@ -6,13 +6,18 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import com.sun.net.httpserver.HttpServer;
 import ru.practicum.manager.InMemoryTaskManager;
 import ru.practicum.manager.TaskManager;
+import ru.practicum.model.Status;
+import ru.practicum.model.Task;
 import ru.practicum.server.DurationAdapter;
 import ru.practicum.server.LocalDateTimeAdapter;
 import ru.practicum.server.handler.TaskHandler;
@@ -22,8 +27,12 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
 public class TaskHandlerIntegrationTest {
@@ -162,4 +171,136 @@ public class TaskHandlerIntegrationTest {
         assertEquals(200, getResponse.statusCode());
         assertEquals("[]", getResponse.body().trim());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReturnTasksPageByPage() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            String taskJson = "{ \"title\": \"T" + i + "\", \"description\": \"\", " +
+                    "\"startTime\": \"2025-12-0" + (i + 1) + "T10:00:00\", \"duration\": 10 }";
+            client.send(
+                    HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/tasks"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(taskJson)).build(),
+                    HttpResponse.BodyHandlers.ofString()
+            );
+        }
+
+        HttpResponse<String> firstPage = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/tasks?limit=3")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        assertEquals(200, firstPage.statusCode());
+        JsonObject firstJson = GSON.fromJson(firstPage.body(), JsonObject.class);
+        assertEquals(3, firstJson.getAsJsonArray("items").size());
+        int cursor = firstJson.get("nextCursor").getAsInt();
+        assertEquals(firstJson.getAsJsonArray("items").get(2).getAsJsonObject().get("id").getAsInt(), cursor);
+
+        HttpResponse<String> secondPage = client.send(
+                HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:" + port + "/tasks?limit=3&after=" + cursor))
+                        .GET().build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        JsonObject secondJson = GSON.fromJson(secondPage.body(), JsonObject.class);
+        assertEquals(2, secondJson.getAsJsonArray("items").size());
+        assertFalse(secondJson.has("nextCursor"), "На последней странице курсора быть не должно");
+
+        HttpResponse<String> badRequest = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/tasks?limit=abc")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        assertEquals(400, badRequest.statusCode());
+    }
+
+    @Test
+    void shouldStreamLargeTaskList() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        for (int i = 0; i < 100; i++) {
+            taskManager.createTask(new Task("T" + i, "", taskManager, Status.NEW,
+                    start.plusHours(i), Duration.ofMinutes(10)));
+        }
+
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/tasks")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+
+        assertEquals(200, response.statusCode());
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(""),
+                "Большой список должен отдаваться потоком");
+        assertEquals(100, GSON.fromJson(response.body(), JsonArray.class).size());
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWhileTasksAreUnchanged() throws Exception {
+        taskManager.createTask(new Task("Задача", "Описание", taskManager,
+                Status.NEW, LocalDateTime.of(2026, 2, 1, 10, 0), Duration.ofMinutes(30)));
+
+        HttpResponse<String> first = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/tasks")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        assertEquals(200, first.statusCode());
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> repeated = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/tasks"))
+                        .header("If-None-Match", etag).GET().build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        assertEquals(304, repeated.statusCode());
+        assertEquals("", repeated.body());
+
+        taskManager.createTask(new Task("Ещё задача", "Описание", taskManager,
+                Status.NEW, LocalDateTime.of(2026, 2, 2, 10, 0), Duration.ofMinutes(30)));
+        HttpResponse<String> changed = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/tasks"))
+                        .header("If-None-Match", etag).GET().build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        assertEquals(200, changed.statusCode(), "После изменения старый ETag не должен совпадать");
+        assertEquals(2, GSON.fromJson(changed.body(), JsonArray.class).size());
+    }
+
+    @Test
+    void shouldCompressLargeResponsesWhenClientAccepts() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 0, 0);
+        for (int i = 0; i < 100; i++) {
+            taskManager.createTask(new Task("Задача " + i, "Одинаковое описание", taskManager,
+                    Status.NEW, start.plusHours(i), Duration.ofMinutes(10)));
+        }
+
+        HttpResponse<byte[]> gzipped = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/tasks"))
+                        .header("Accept-Encoding", "deflate;q=0.5, gzip").GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray()
+        );
+        assertEquals(200, gzipped.statusCode());
+        assertEquals("gzip", gzipped.headers().firstValue("Content-Encoding").orElse(""));
+        String json;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.body()))) {
+            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(100, GSON.fromJson(json, JsonArray.class).size());
+        assertTrue(gzipped.body().length * 4 < json.getBytes(StandardCharsets.UTF_8).length,
+                "Повторяющийся JSON должен сжиматься в разы");
+
+        HttpResponse<byte[]> deflated = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/tasks"))
+                        .header("Accept-Encoding", "deflate").GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray()
+        );
+        assertEquals("deflate", deflated.headers().firstValue("Content-Encoding").orElse(""));
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(deflated.body()))) {
+            assertEquals(json, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        HttpResponse<String> small = client.send(
+                HttpRequest.newBuilder().uri(URI.create("http://localhost:" + port + "/tasks?limit=1"))
+                        .header("Accept-Encoding", "gzip").GET().build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+        assertTrue(small.headers().firstValue("Content-Encoding").isEmpty(), "Мелкий ответ не сжимается");
+        assertTrue(small.body().startsWith("{"));
+    }
+}
@@ -0,0 +1,73 @@
+package taskManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.manager.ConcurrentTaskManager;
+import ru.practicum.model.Epic;
+import ru.practicum.model.Status;
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+
+    @BeforeEach
+    void beforeEach() {
+        taskManager = new ConcurrentTaskManager();
+    }
+
+    @Test
+    void testParallelCreatesKeepStoreConsistent() throws Exception {
+        Epic epic = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+        LocalDateTime start = LocalDateTime.of(2035, 1, 1, 0, 0);
+        int threads = 8;
+        int perThread = 200;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    LocalDateTime slot = start.plusHours(2L * (thread * perThread + i));
+                    if (i % 2 == 0) {
+                        taskManager.createTask(new Task("Задача " + thread + "-" + i, "Описание", taskManager,
+                                Status.NEW, slot, Duration.ofMinutes(30)));
+                    } else {
+                        taskManager.createSubtask(new Subtask("Подзадача " + thread + "-" + i, "Описание",
+                                taskManager, epic.getId(), Status.DONE, slot, Duration.ofMinutes(30)));
+                    }
+                    taskManager.getAllTasks();
+                    taskManager.getPrioritizedTasks();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        int total = threads * perThread;
+        assertEquals(total / 2, taskManager.getAllTasks().size());
+        assertEquals(total / 2, taskManager.getAllSubtasks().size());
+        assertEquals(total / 2, epic.getSubtasks().size(), "Все подзадачи должны попасть в эпик");
+        assertEquals(Status.DONE, epic.getStatus());
+        assertEquals(total, taskManager.getPrioritizedTasks().size());
+
+        Set<Integer> ids = new HashSet<>();
+        taskManager.getPrioritizedTasks().forEach(task -> ids.add(task.getId()));
+        assertEquals(total, ids.size(), "Идентификаторы не должны повторяться");
+    }
+}
@@ -3,8 +3,13 @@ package taskManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.practicum.manager.BatchOperation;
 import ru.practicum.manager.FileBackedTaskManager;
+import ru.practicum.manager.GroupCommitSettings;
 import ru.practicum.manager.HistoryManager;
+import ru.practicum.manager.JournalSettings;
+import ru.practicum.manager.ManagerSaveException;
+import ru.practicum.manager.SnapshotFormat;
 import ru.practicum.model.Epic;
 import ru.practicum.model.Status;
 import ru.practicum.model.Subtask;
@@ -14,10 +19,17 @@ import java.io.File;
 import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
@@ -33,6 +45,8 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
 
     @AfterEach
     void afterEach() {
+        taskManager.close();
+        new File(tempFile.getPath() + ".history").delete();
         if (tempFile != null && tempFile.exists()) {
             assertTrue(tempFile.delete(), "Не удалось удалить временный файл");
         }
@@ -98,4 +112,288 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
     }
 
 
+    @Test
+    void testJournalReplayRestoresStateWithoutSnapshot() {
+        File journalFile = new File(tempFile.getPath() + ".journal");
+        LocalDateTime startTime1 = LocalDateTime.of(2031, 10, 1, 8, 0);
+        LocalDateTime startTime2 = LocalDateTime.of(2031, 10, 3, 9, 0);
+
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, JournalSettings.perOperation());
+        Task task = journaled.createTask(new Task("Купить продукты", "Хлеб яйца масло", journaled, Status.NEW,
+                startTime1, Duration.ofHours(1)));
+        Task removedTask = journaled.createTask(new Task("Постирать вещи", "Разделить по цветам", journaled,
+                Status.NEW, null, null));
+        Epic epic = journaled.createEpic(new Epic("Учить английский", "Очень страшная задача", journaled,
+                Status.NEW));
+        Subtask subtask = journaled.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы", journaled,
+                epic.getId(), Status.DONE, startTime2, Duration.ofHours(2)));
+        journaled.deleteTask(removedTask.getId());
+        journaled.getSubtaskById(subtask.getId());
+        journaled.getTaskById(task.getId());
+        journaled.flushHistory();
+
+        assertEquals(0, tempFile.length(), "В режиме журнала снимок не должен переписываться на каждую операцию");
+        assertTrue(journalFile.length() > 0, "Изменения должны попасть в журнал");
+
+        FileBackedTaskManager restored = new FileBackedTaskManager(tempFile, JournalSettings.grouped(8));
+        try {
+            assertEquals(List.of(task), restored.getAllTasks());
+            assertEquals(List.of(subtask), restored.getAllSubtasks());
+            Epic restoredEpic = restored.getAllEpics().get(0);
+            assertEquals(epic.getId(), restoredEpic.getId());
+            assertEquals(Status.DONE, restoredEpic.getStatus(), "Статус эпика должен восстановиться из журнала");
+            assertEquals(List.of(subtask), restoredEpic.getSubtasks());
+            assertEquals(List.of(subtask, task), restored.getHistory());
+            assertEquals(0, journalFile.length(), "После переигрывания журнал сворачивается в снимок");
+        } finally {
+            restored.close();
+            journaled.close();
+            journalFile.delete();
+        }
+    }
+
+    @Test
+    void testJournalKeepsBatchAsOneUnit() throws Exception {
+        File journalFile = new File(tempFile.getPath() + ".journal");
+        LocalDateTime startTime = LocalDateTime.of(2031, 11, 1, 8, 0);
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, JournalSettings.perOperation());
+        FileBackedTaskManager restored = null;
+        try {
+            Task kept = journaled.createTask(new Task("Купить продукты", "Хлеб яйца масло", journaled, Status.NEW,
+                    startTime, Duration.ofHours(1)));
+            assertTrue(journaled.applyBatch(List.of(
+                    BatchOperation.create(new Task("Постирать вещи", "Разделить по цветам", journaled, Status.NEW,
+                            startTime.plusHours(2), Duration.ofHours(1))),
+                    BatchOperation.create(new Task("Помыть посуду", "Тарелки и кружки", journaled, Status.NEW,
+                            startTime.plusHours(4), Duration.ofHours(1))))).isApplied());
+
+            assertEquals(0, tempFile.length(), "Пакет дописывается в журнал, а не переписывает снимок");
+            List<String> records = Files.readAllLines(journalFile.toPath());
+            assertEquals(5, records.size(), "Одна запись до пакета и пакет из двух записей между маркерами");
+
+            // Сбой до записи конца пакета: пакет не применяется ни частично, ни целиком
+            Files.write(journalFile.toPath(), records.subList(0, records.size() - 1));
+            restored = new FileBackedTaskManager(tempFile, JournalSettings.perOperation());
+            assertEquals(List.of(kept), restored.getAllTasks());
+        } finally {
+            if (restored != null) {
+                restored.close();
+            }
+            journaled.close();
+            journalFile.delete();
+        }
+    }
+
+    @Test
+    void testViewsDoNotRewriteSnapshot() throws Exception {
+        Task task = taskManager.createTask(new Task("Купить продукты", "Хлеб яйца масло", taskManager, Status.NEW,
+                LocalDateTime.of(2032, 10, 1, 8, 0), Duration.ofHours(1)));
+        byte[] snapshot = Files.readAllBytes(tempFile.toPath());
+
+        taskManager.getTaskById(task.getId());
+
+        assertArrayEquals(snapshot, Files.readAllBytes(tempFile.toPath()), "Просмотр не должен переписывать снимок");
+
+        taskManager.flushHistory();
+        FileBackedTaskManager restored = new FileBackedTaskManager(tempFile);
+        assertEquals(List.of(task), restored.getHistory());
+        restored.close();
+    }
+
+    @Test
+    void testHistoryFlushRetriesAfterFailure() throws Exception {
+        File historyFile = new File(tempFile.getPath() + ".history");
+        // Каталог на месте файла истории: подменить его файлом не получится, и запись падает
+        File blocker = new File(historyFile, "blocker");
+        assertTrue(historyFile.mkdir() && blocker.createNewFile());
+        try {
+            Task task = taskManager.createTask(new Task("Купить продукты", "Хлеб яйца масло", taskManager,
+                    Status.NEW, LocalDateTime.of(2032, 11, 1, 8, 0), Duration.ofHours(1)));
+            taskManager.getTaskById(task.getId());
+            TimeUnit.MILLISECONDS.sleep(500);
+
+            assertTrue(blocker.delete() && historyFile.delete());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!historyFile.isFile() && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(50);
+            }
+            assertTrue(historyFile.isFile(), "После сбоя запись истории должна повториться сама");
+        } finally {
+            blocker.delete();
+            historyFile.delete();
+            new File(historyFile.getPath() + ".tmp").delete();
+        }
+    }
+
+    @Test
+    void testGroupCommitPersistsBurstOfChanges() throws Exception {
+        FileBackedTaskManager grouped = new FileBackedTaskManager(tempFile, GroupCommitSettings.of(50, 1_000));
+        LocalDateTime startTime = LocalDateTime.of(2033, 1, 1, 8, 0);
+        for (int i = 0; i < 100; i++) {
+            grouped.createTask(new Task("Задача " + i, "Описание", grouped, Status.NEW,
+                    startTime.plusHours(i), Duration.ofMinutes(30)));
+        }
+
+        grouped.whenPersisted().get(5, TimeUnit.SECONDS);
+        assertEquals(100, new FileBackedTaskManager(tempFile).getAllTasks().size(),
+                "После завершения future все изменения должны быть в файле");
+
+        Task last = grouped.getAllTasks().get(99);
+        grouped.deleteTask(last.getId());
+        grouped.close();
+        assertEquals(99, new FileBackedTaskManager(tempFile).getAllTasks().size(),
+                "close() должен дописать последнюю пачку изменений");
+    }
+
+    @Test
+    void testCompactionAlongsideWritersLosesNothing() throws Exception {
+        File journalFile = new File(tempFile.getPath() + ".journal");
+        FileBackedTaskManager journaled = new FileBackedTaskManager(tempFile, JournalSettings.perOperation());
+        LocalDateTime startTime = LocalDateTime.of(2035, 1, 1, 8, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < 4; writer++) {
+                int offset = writer * 500;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        journaled.createTask(new Task("Задача " + (offset + i), "Описание", journaled, Status.NEW,
+                                startTime.plusHours(offset + i), Duration.ofMinutes(30)));
+                    }
+                }));
+            }
+            Future<?> compactor = executor.submit(() -> {
+                while (!writers.stream().allMatch(Future::isDone)) {
+                    journaled.compact();
+                }
+            });
+            for (Future<?> future : writers) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            compactor.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Менеджер не закрывается, как при сбое: на диске только то, что успели записать снимок и журнал
+        FileBackedTaskManager restored = new FileBackedTaskManager(tempFile, JournalSettings.perOperation());
+        try {
+            assertEquals(2_000, restored.getAllTasks().size(), "Сжатие не должно терять записи журнала");
+        } finally {
+            restored.close();
+            journaled.close();
+            journalFile.delete();
+        }
+    }
+
+    @Test
+    void testGroupCommitReadsAreSafeAlongsideWriters() throws Exception {
+        FileBackedTaskManager grouped = new FileBackedTaskManager(tempFile, GroupCommitSettings.of(50, 1_000));
+        LocalDateTime startTime = LocalDateTime.of(2034, 1, 1, 8, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < 2; writer++) {
+                int offset = writer * 1_000;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        grouped.createTask(new Task("Задача " + (offset + i), "Описание", grouped, Status.NEW,
+                                startTime.plusHours(offset + i), Duration.ofMinutes(30)));
+                    }
+                }));
+            }
+            for (int reader = 0; reader < 2; reader++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        List<Task> all = grouped.getAllTasks();
+                        all.forEach(task -> assertEquals(task, grouped.getTaskById(task.getId())));
+                        grouped.getPrioritizedTasks();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            grouped.close();
+        }
+        assertEquals(2_000, grouped.getAllTasks().size());
+        assertEquals(2_000, grouped.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void testLoadRejectsOverlappingTasksWithoutSavingAnything() throws Exception {
+        List<String> lines = List.of(
+                "id,type,title,status,description,startTime,duration,epic",
+                "9001,TASK,Первая,NEW,Описание,2034-01-01T08:00,60",
+                "9003,SUBTASK,Подзадача,NEW,Описание,2034-01-01T10:00,30,9002",
+                "9002,EPIC,Эпик,NEW,Описание,,",
+                "9004,TASK,Вторая,NEW,Описание,2034-01-01T08:30,60"
+        );
+        Files.write(tempFile.toPath(), lines);
+
+        assertThrows(ManagerSaveException.class, () -> new FileBackedTaskManager(tempFile));
+        assertEquals(lines, Files.readAllLines(tempFile.toPath()), "Загрузка не должна ничего записывать");
+
+        Files.write(tempFile.toPath(), lines.subList(0, 4));
+        FileBackedTaskManager loaded = new FileBackedTaskManager(tempFile);
+        assertEquals(1, loaded.getAllTasks().size());
+        assertEquals(List.of(loaded.getSubtaskById(9003)), loaded.getEpicById(9002).getSubtasks());
+        assertEquals(LocalDateTime.of(2034, 1, 1, 10, 0), loaded.getEpicById(9002).getStartTime());
+        assertEquals(lines.subList(0, 4), Files.readAllLines(tempFile.toPath()), "Загрузка не должна ничего записывать");
+        loaded.close();
+    }
+
+    @Test
+    void testBinarySnapshotRoundTripAndCsvExport() throws Exception {
+        FileBackedTaskManager binary = new FileBackedTaskManager(tempFile, SnapshotFormat.BINARY);
+        Task task = binary.createTask(new Task("Купить продукты", "Хлеб яйца масло", binary, Status.NEW,
+                LocalDateTime.of(2035, 1, 1, 8, 0), Duration.ofMinutes(90)));
+        Task unscheduled = binary.createTask(new Task("Позвонить маме", "", binary, Status.DONE, null, null));
+        Epic epic = binary.createEpic(new Epic("Учить английский", "Очень страшная задача", binary, Status.NEW));
+        Subtask subtask = binary.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы", binary,
+                epic.getId(), Status.IN_PROGRESS, LocalDateTime.of(2035, 1, 2, 10, 0), Duration.ofHours(1)));
+
+        FileBackedTaskManager restored = new FileBackedTaskManager(tempFile);
+        assertEquals(task, restored.getTaskById(task.getId()));
+        assertEquals(unscheduled, restored.getTaskById(unscheduled.getId()));
+        assertEquals(subtask, restored.getSubtaskById(subtask.getId()));
+        Epic restoredEpic = restored.getEpicById(epic.getId());
+        assertEquals(List.of(subtask), restoredEpic.getSubtasks());
+        assertEquals(Status.IN_PROGRESS, restoredEpic.getStatus());
+
+        File csvFile = Files.createTempFile("export", ".csv").toFile();
+        try {
+            binary.exportCsv(csvFile);
+            assertTrue(tempFile.length() < csvFile.length(), "Двоичный снимок должен быть компактнее CSV");
+            FileBackedTaskManager fromCsv = new FileBackedTaskManager(csvFile);
+            assertEquals(4, fromCsv.getAllTasks().size() + fromCsv.getAllSubtasks().size()
+                    + fromCsv.getAllEpics().size());
+        } finally {
+            csvFile.delete();
+            binary.close();
+            restored.close();
+        }
+    }
+
+    @Test
+    void testCorruptBinarySnapshotIsRejected() throws Exception {
+        FileBackedTaskManager binary = new FileBackedTaskManager(tempFile, SnapshotFormat.BINARY);
+        binary.createTask(new Task("Купить продукты", "Хлеб яйца масло", binary, Status.NEW,
+                LocalDateTime.of(2035, 2, 1, 8, 0), Duration.ofMinutes(90)));
+        binary.close();
+        byte[] snapshot = Files.readAllBytes(tempFile.toPath());
+
+        // Заголовок — 10 байт, затем длина записи; в записи тип (14), id, эпик, статус (23), время, длительность
+        // и длина заголовка (40)
+        int[] offsets = {14, 23, 40};
+        for (int offset : offsets) {
+            byte[] corrupted = snapshot.clone();
+            corrupted[offset] = 0x55;
+            Files.write(tempFile.toPath(), corrupted);
+            assertThrows(ManagerSaveException.class, () -> new FileBackedTaskManager(tempFile),
+                    "Повреждённый байт " + offset + " должен давать ManagerSaveException");
+        }
+    }
 }
@@ -163,4 +163,29 @@ class InMemoryHistoryManagerTest {
         assertEquals(0, historyManager.getHistory().size());
     }
 
+    @Test
+    void testCapacityEvictsOldestView() {
+        HistoryManager boundedHistory = Managers.getDefaultHistory(2);
+        boundedHistory.add(task1);
+        boundedHistory.add(task2);
+        boundedHistory.add(task1);
+        boundedHistory.add(epic1);
+
+        assertEquals(List.of(task1, epic1), boundedHistory.getHistory(),
+                "Должен вытесняться самый давний просмотр");
+        assertEquals(2, boundedHistory.size());
+        assertEquals(2, boundedHistory.getCapacity());
+        assertTrue(boundedHistory.estimateMemoryUsage() > 0);
+    }
+
+    @Test
+    void testGetHistoryWithLimit() {
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(epic1);
+
+        assertEquals(List.of(task2, epic1), historyManager.getHistory(2), "Должны вернуться последние просмотры");
+        assertEquals(historyManager.getHistory(), historyManager.getHistory(10));
+        assertTrue(historyManager.getHistory(0).isEmpty());
+    }
 }
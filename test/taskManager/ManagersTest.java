@@ -18,6 +18,12 @@ class ManagersTest {
         assertNotNull(manager, "getDefault() должен возвращать рабочий TaskManager");
     }
 
+    @Test
+    void getConcurrentReturnsTaskManager() {
+        TaskManager manager = Managers.getConcurrent();
+        assertNotNull(manager, "getConcurrent() должен возвращать рабочий TaskManager");
+    }
+
     @Test
     void getDefaultHistoryReturnsHistoryManager() {
         HistoryManager history = Managers.getDefaultHistory();
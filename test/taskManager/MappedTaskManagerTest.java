@@ -0,0 +1,147 @@
+package taskManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.manager.ManagerSaveException;
+import ru.practicum.manager.MappedTaskManager;
+import ru.practicum.model.Epic;
+import ru.practicum.model.Status;
+import ru.practicum.model.Subtask;
+import ru.practicum.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedTaskManagerTest extends TaskManagerTest<MappedTaskManager> {
+    // Заголовок — 32 байта, слот задачи — две копии записи по 64 байта; в записи признак (0), тип (1), статус (2)
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 64;
+    private static final byte LIVE = 1;
+    private static final byte EMPTY = 0;
+
+    private File tempFile;
+
+    @BeforeEach
+    void beforeEach() {
+        assertDoesNotThrow(() -> {
+            tempFile = Files.createTempFile("tasks", ".bin").toFile();
+            taskManager = new MappedTaskManager(tempFile);
+        });
+    }
+
+    @AfterEach
+    void afterEach() {
+        taskManager.close();
+        new File(tempFile.getPath() + ".strings").delete();
+        assertTrue(tempFile.delete(), "Не удалось удалить временный файл");
+    }
+
+    @Test
+    void testChangesSurviveReopen() {
+        Task task = taskManager.createTask(new Task("Купить продукты", "Хлеб яйца масло", taskManager, Status.NEW,
+                LocalDateTime.of(2036, 1, 1, 8, 0), Duration.ofHours(1)));
+        Task removedTask = taskManager.createTask(new Task("Постирать вещи", "Разделить по цветам", taskManager,
+                Status.NEW, null, null));
+        Epic epic = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+        Subtask subtask = taskManager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы",
+                taskManager, epic.getId(), Status.NEW, LocalDateTime.of(2036, 1, 2, 10, 0), Duration.ofHours(2)));
+
+        Subtask doneSubtask = new Subtask("Найти репетитора", "Выбрать по отзывам", taskManager, epic.getId(),
+                Status.DONE, LocalDateTime.of(2036, 1, 3, 10, 0), Duration.ofHours(2));
+        taskManager.updateSubtask(doneSubtask, subtask.getId());
+        taskManager.deleteTask(removedTask.getId());
+        taskManager.close();
+
+        MappedTaskManager reopened = new MappedTaskManager(tempFile);
+        try {
+            assertEquals(List.of(task), reopened.getAllTasks());
+            assertEquals(List.of(doneSubtask), reopened.getAllSubtasks());
+            Epic reopenedEpic = reopened.getEpicById(epic.getId());
+            assertEquals(Status.DONE, reopenedEpic.getStatus(), "Запись эпика должна обновиться вместе с подзадачей");
+            assertEquals(List.of(doneSubtask), reopenedEpic.getSubtasks());
+        } finally {
+            reopened.close();
+        }
+        taskManager = new MappedTaskManager(tempFile);
+    }
+
+    @Test
+    void testDeletedEpicSubtasksDoNotComeBack() {
+        Epic epic = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+        taskManager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы", taskManager, epic.getId(),
+                Status.NEW, LocalDateTime.of(2036, 2, 1, 10, 0), Duration.ofHours(2)));
+        taskManager.deleteEpic(epic.getId());
+        taskManager.close();
+
+        taskManager = new MappedTaskManager(tempFile);
+        assertTrue(taskManager.getAllEpics().isEmpty());
+        assertTrue(taskManager.getAllSubtasks().isEmpty(), "Записи подзадач удалённого эпика не должны ожить");
+    }
+
+    @Test
+    void testCorruptRecordIsRejected() throws IOException {
+        Task task = taskManager.createTask(new Task("Купить продукты", "Хлеб яйца масло", taskManager, Status.NEW,
+                null, null));
+        taskManager.close();
+        byte[] original = Files.readAllBytes(tempFile.toPath());
+        int record = HEADER_SIZE + task.getId() * 2 * RECORD_SIZE;
+
+        for (int offset : new int[]{record + 1, record + 2}) {
+            byte[] corrupted = original.clone();
+            corrupted[offset] = 0x55;
+            Files.write(tempFile.toPath(), corrupted);
+            assertThrows(ManagerSaveException.class, () -> new MappedTaskManager(tempFile),
+                    "Повреждённый байт " + offset + " должен давать ManagerSaveException");
+        }
+        Files.write(tempFile.toPath(), original);
+        taskManager = new MappedTaskManager(tempFile);
+        assertEquals(List.of(task), taskManager.getAllTasks());
+    }
+
+    @Test
+    void testInterruptedUpdateLoadsWholeVersion() throws IOException {
+        Task task = taskManager.createTask(new Task("Купить продукты", "Хлеб яйца масло", taskManager, Status.NEW,
+                null, null));
+        Task updated = new Task("Купить продукты", "Хлеб и молоко", taskManager, Status.DONE, null, null);
+        updated.setId(task.getId());
+        taskManager.updateTask(updated);
+        taskManager.close();
+        // Первая версия лежит в первой копии слота, обновление — во второй
+        long first = HEADER_SIZE + (long) task.getId() * 2 * RECORD_SIZE;
+        long second = first + RECORD_SIZE;
+
+        // Падение после установки LIVE новой копии, но до снятия со старой: читается новая
+        setFlag(first, LIVE);
+        taskManager = new MappedTaskManager(tempFile);
+        assertEquals(List.of(updated), taskManager.getAllTasks());
+        assertEquals("Хлеб и молоко", taskManager.getAllTasks().get(0).getDescription());
+        taskManager.close();
+
+        // Падение до установки LIVE новой копии: читается старая
+        setFlag(first, LIVE);
+        setFlag(second, EMPTY);
+        taskManager = new MappedTaskManager(tempFile);
+        assertEquals(1, taskManager.getAllTasks().size());
+        assertEquals("Хлеб яйца масло", taskManager.getAllTasks().get(0).getDescription());
+    }
+
+    private void setFlag(long offset, byte flag) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(tempFile, "rw")) {
+            file.seek(offset);
+            file.write(flag);
+        }
+    }
+}
@@ -2,12 +2,17 @@ package taskManager;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.practicum.manager.BatchOperation;
+import ru.practicum.manager.BatchResult;
 import ru.practicum.manager.HistoryManager;
+import ru.practicum.manager.ManagerSaveException;
+import ru.practicum.manager.TaskEvent;
 import ru.practicum.manager.TaskManager;
 import ru.practicum.model.Epic;
 import ru.practicum.model.Status;
 import ru.practicum.model.Subtask;
 import ru.practicum.model.Task;
+import ru.practicum.model.TaskType;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -20,6 +25,8 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public abstract class TaskManagerTest<T extends TaskManager> {
@@ -676,6 +683,50 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertNotNull(taskManager.getSubtaskById(subtask3.getId()));
     }
 
+    @Test
+    public void testDeleteEpicRemovesItsSubtasks() {
+        LocalDateTime startTime1 = LocalDateTime.of(2027, 2, 1, 1, 0);
+        Duration duration1 = Duration.ofHours(1);
+
+        Epic epic1 = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+        Subtask subtask1 = taskManager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы", taskManager,
+                epic1.getId(), Status.NEW, startTime1, duration1));
+
+        assertTrue(taskManager.deleteEpic(epic1.getId()));
+        assertFalse(taskManager.deleteEpic(epic1.getId()), "Повторное удаление должно возвращать false");
+        assertTrue(taskManager.getAllSubtasks().isEmpty(), "Подзадачи удаляются вместе с эпиком");
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty(), "Время подзадач освобождается");
+        assertNull(taskManager.getSubtaskById(subtask1.getId()));
+
+        // Подзадача с тем же содержимым и временем создаётся заново: индекс дубликатов и расписание очищены
+        Epic epic2 = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+        Subtask recreated = taskManager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы",
+                taskManager, epic2.getId(), Status.NEW, startTime1, duration1));
+        assertNotEquals(subtask1.getId(), recreated.getId());
+    }
+
+    @Test
+    public void testApplyBatchDeleteEpicRemovesItsSubtasks() {
+        LocalDateTime startTime1 = LocalDateTime.of(2027, 2, 5, 1, 0);
+        Duration duration1 = Duration.ofHours(1);
+
+        Epic epic1 = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+        taskManager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы", taskManager,
+                epic1.getId(), Status.NEW, startTime1, duration1));
+        taskManager.createSubtask(new Subtask("Разбираться в IDEA", "Переводить все встреченные слова",
+                taskManager, epic1.getId(), Status.NEW, startTime1.plusHours(2), duration1));
+
+        BatchResult result = taskManager.applyBatch(List.of(BatchOperation.delete(TaskType.EPIC, epic1.getId())));
+
+        assertTrue(result.isApplied());
+        assertTrue(taskManager.getAllEpics().isEmpty());
+        assertTrue(taskManager.getAllSubtasks().isEmpty(), "Пакетное удаление эпика удаляет и его подзадачи");
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+    }
+
     @Test
     public void testDeleteAllEpics() {
         LocalDateTime startTime1 = LocalDateTime.of(2027, 1, 1, 1, 0);
@@ -813,6 +864,287 @@ public abstract class TaskManagerTest<T extends TaskManager> {
 
     }
 
+    @Test
+    void testCreateOverlappingTaskThrows() {
+        LocalDateTime startTime1 = LocalDateTime.of(2041, 3, 1, 10, 0);
+        Duration duration1 = Duration.ofHours(2);
+
+        Task task1 = taskManager.createTask(new Task("Купить продукты", "Хлеб яйца масло", taskManager,
+                Status.NEW, startTime1, duration1));
+        Epic epic1 = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+
+        assertThrows(ManagerSaveException.class, () -> taskManager.createTask(new Task("Постирать вещи",
+                "Разделить по цветам", taskManager, Status.NEW, startTime1.plusHours(1), duration1)),
+                "Задача, начинающаяся внутри другой, должна быть отклонена");
+        assertThrows(ManagerSaveException.class, () -> taskManager.createSubtask(new Subtask("Найти репетитора",
+                "Почитать отзывы", taskManager, epic1.getId(), Status.NEW, startTime1.minusHours(1),
+                Duration.ofHours(5))), "Подзадача, накрывающая задачу, должна быть отклонена");
+
+        Task task2 = taskManager.createTask(new Task("Постирать вещи", "Разделить по цветам", taskManager,
+                Status.NEW, startTime1.plusHours(3), duration1));
+        assertNotNull(task2, "Задача без пересечений должна быть создана");
+
+        taskManager.deleteTask(task1.getId());
+        Task task3 = taskManager.createTask(new Task("Помыть посуду", "После ужина", taskManager,
+                Status.NEW, startTime1, duration1));
+        assertTrue(taskManager.getPrioritizedTasks().contains(task3),
+                "После удаления задачи её интервал должен освободиться");
+    }
+
+    @Test
+    void testUpdateSubtaskDoesNotConflictWithItself() {
+        LocalDateTime startTime1 = LocalDateTime.of(2042, 3, 1, 10, 0);
+        Duration duration1 = Duration.ofHours(2);
+
+        Epic epic1 = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+        Subtask subtask1 = taskManager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы",
+                taskManager, epic1.getId(), Status.NEW, startTime1, duration1));
+
+        Subtask updatedSubtask = new Subtask("Новое название", "Новое описание", taskManager, epic1.getId(),
+                Status.IN_PROGRESS, startTime1.plusHours(1), duration1);
+        assertTrue(taskManager.updateSubtask(updatedSubtask, subtask1.getId()));
+
+        List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
+        assertEquals(1, prioritizedTasks.size(), "Старая версия подзадачи должна быть удалена из расписания");
+        assertEquals(updatedSubtask, prioritizedTasks.get(0));
+    }
+
+    @Test
+    void testDuplicateCreateReturnsExistingAfterUpdateAndDelete() {
+        LocalDateTime startTime1 = LocalDateTime.of(2043, 3, 1, 10, 0);
+        Duration duration1 = Duration.ofHours(1);
+
+        Task task1 = taskManager.createTask(new Task("Купить продукты", "Хлеб яйца масло", taskManager,
+                Status.NEW, startTime1, duration1));
+        assertSame(task1, taskManager.createTask(new Task("Купить продукты", "Хлеб яйца масло", taskManager,
+                Status.NEW, startTime1, duration1)), "Повторное создание должно вернуть существующую задачу");
+
+        Task updatedTask = new Task("Купить продукты и хлеб", "Хлеб яйца масло", taskManager, Status.NEW,
+                startTime1, duration1);
+        updatedTask.setId(task1.getId());
+        taskManager.updateTask(updatedTask);
+        assertSame(updatedTask, taskManager.createTask(new Task("Купить продукты и хлеб", "Хлеб яйца масло",
+                taskManager, Status.NEW, startTime1, duration1)), "Индекс должен учитывать обновление задачи");
+
+        Epic epic1 = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+        assertSame(epic1, taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача",
+                taskManager, Status.NEW)));
+        Subtask subtask1 = taskManager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы",
+                taskManager, epic1.getId(), Status.NEW, startTime1.plusHours(2), duration1));
+        assertSame(subtask1, taskManager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы",
+                taskManager, epic1.getId(), Status.NEW, startTime1.plusHours(2), duration1)));
+
+        taskManager.removeSubtaskById(subtask1.getId());
+        Subtask subtask2 = taskManager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы",
+                taskManager, epic1.getId(), Status.NEW, startTime1.plusHours(2), duration1));
+        assertNotEquals(subtask1.getId(), subtask2.getId(), "После удаления подзадача должна создаваться заново");
+    }
+
+    @Test
+    void testVersionsGrowOnChanges() {
+        long initialVersion = taskManager.getVersion();
+        long initialTasksVersion = taskManager.getVersion(TaskType.TASK);
+
+        Epic epic1 = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+        assertEquals(initialTasksVersion, taskManager.getVersion(TaskType.TASK),
+                "Изменение эпиков не должно менять версию задач");
+        long epicsVersion = taskManager.getVersion(TaskType.EPIC);
+
+        taskManager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы", taskManager, epic1.getId(),
+                Status.DONE, LocalDateTime.of(2047, 3, 1, 10, 0), Duration.ofHours(1)));
+        assertTrue(taskManager.getVersion(TaskType.SUBTASK) > 0);
+        assertTrue(taskManager.getVersion(TaskType.EPIC) > epicsVersion, "Пересчёт эпика тоже меняет версию");
+
+        long beforeRead = taskManager.getVersion();
+        taskManager.getAllSubtasks();
+        taskManager.getEpicById(epic1.getId());
+        assertEquals(beforeRead, taskManager.getVersion(), "Чтение не меняет версию");
+
+        taskManager.deleteAllSubtasks();
+        assertTrue(taskManager.getVersion() > beforeRead);
+        assertTrue(beforeRead > initialVersion);
+    }
+
+    @Test
+    void testEventBusPublishesChanges() {
+        List<TaskEvent> events = new java.util.ArrayList<>();
+        Runnable unsubscribe = taskManager.getEventBus().subscribe(events::add);
+
+        Epic epic = taskManager.createEpic(new Epic("Переезд", "Собрать вещи", taskManager, Status.NEW));
+        Subtask subtask = taskManager.createSubtask(new Subtask("Коробки", "Купить коробки", taskManager,
+                epic.getId(), Status.DONE, LocalDateTime.of(2048, 3, 1, 10, 0), Duration.ofHours(1)));
+        taskManager.removeSubtaskById(subtask.getId());
+
+        List<String> expected = List.of(
+                "CREATED EPIC " + epic.getId(),
+                "CREATED SUBTASK " + subtask.getId(),
+                "UPDATED EPIC " + epic.getId(),
+                "STATUS_CHANGED EPIC " + epic.getId(),
+                "DELETED SUBTASK " + subtask.getId(),
+                "UPDATED EPIC " + epic.getId(),
+                "STATUS_CHANGED EPIC " + epic.getId());
+        assertEquals(expected, events.stream()
+                .map(event -> event.getKind() + " " + event.getType() + " " + event.getId())
+                .toList());
+        assertEquals(Status.DONE, events.get(3).getStatus(), "Событие несёт новый статус эпика");
+        assertEquals(Status.NEW, events.get(6).getStatus());
+        for (int i = 1; i < events.size(); i++) {
+            assertTrue(events.get(i).getSequence() > events.get(i - 1).getSequence());
+        }
+
+        unsubscribe.run();
+        taskManager.createTask(new Task("Купить продукты", "Хлеб", taskManager, Status.NEW, null, null));
+        assertEquals(expected.size(), events.size(), "После отписки события не приходят");
+        assertEquals(0, taskManager.getEventBus().getSubscriberCount());
+    }
+
+    @Test
+    void testDuplicateLookupSurvivesDeletingTaskWithSameContent() {
+        Task taskA = taskManager.createTask(new Task("X", "Одинаковое описание", taskManager, Status.NEW,
+                null, null));
+        Task taskB = taskManager.createTask(new Task("Y", "Одинаковое описание", taskManager, Status.NEW,
+                null, null));
+        Task updatedB = new Task("X", "Одинаковое описание", taskManager, Status.NEW, null, null);
+        updatedB.setId(taskB.getId());
+        taskManager.updateTask(updatedB);
+
+        taskManager.deleteTask(taskA.getId());
+
+        assertSame(updatedB, taskManager.createTask(new Task("X", "Одинаковое описание", taskManager, Status.NEW,
+                null, null)), "Удаление задачи A не должно терять задачу B с тем же содержимым");
+        assertEquals(1, taskManager.getAllTasks().size());
+    }
+
+    @Test
+    void testListsComeBackInIdOrder() {
+        Epic epic = taskManager.createEpic(new Epic("Ремонт", "Квартира", taskManager, Status.NEW));
+        for (int i = 0; i < 20; i++) {
+            taskManager.createTask(new Task("Задача " + i, "Описание " + i, taskManager, Status.NEW,
+                    LocalDateTime.of(2049, 1, 1, 0, 0).plusHours(i), Duration.ofMinutes(30)));
+            taskManager.createSubtask(new Subtask("Подзадача " + i, "Описание " + i, taskManager, epic.getId(),
+                    Status.NEW, LocalDateTime.of(2049, 2, 1, 0, 0).plusHours(i), Duration.ofMinutes(30)));
+            taskManager.createEpic(new Epic("Эпик " + i, "Описание " + i, taskManager, Status.NEW));
+        }
+
+        for (List<? extends Task> list : List.of(taskManager.getAllTasks(), taskManager.getAllEpics(),
+                taskManager.getAllSubtasks())) {
+            assertEquals(list.stream().map(Task::getId).sorted().toList(),
+                    list.stream().map(Task::getId).toList(), "Список должен идти по возрастанию id");
+        }
+    }
+
+    @Test
+    void testStatusIndexesFollowChanges() {
+        LocalDateTime startTime1 = LocalDateTime.of(2046, 3, 1, 10, 0);
+        Duration duration1 = Duration.ofHours(1);
+
+        Task task1 = taskManager.createTask(new Task("Купить продукты", "Хлеб яйца масло", taskManager,
+                Status.NEW, startTime1, duration1));
+        Epic epic1 = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+        Subtask subtask1 = taskManager.createSubtask(new Subtask("Найти репетитора", "Почитать отзывы",
+                taskManager, epic1.getId(), Status.DONE, startTime1.plusHours(2), duration1));
+
+        assertEquals(List.of(task1), taskManager.getTasksByStatus(Status.NEW));
+        assertEquals(List.of(subtask1), taskManager.getSubtasksByStatus(Status.DONE));
+        assertEquals(List.of(epic1), taskManager.getEpicsByStatus(Status.DONE),
+                "Пересчёт статуса эпика должен переносить его в индексе");
+        assertTrue(taskManager.getEpicsByStatus(Status.NEW).isEmpty());
+
+        Task doneTask = new Task("Купить продукты", "Хлеб яйца масло", taskManager, Status.DONE, startTime1,
+                duration1);
+        doneTask.setId(task1.getId());
+        taskManager.updateTask(doneTask);
+        assertTrue(taskManager.getTasksByStatus(Status.NEW).isEmpty());
+        assertEquals(List.of(doneTask), taskManager.getTasksByStatus(Status.DONE));
+
+        taskManager.removeSubtaskById(subtask1.getId());
+        assertTrue(taskManager.getSubtasksByStatus(Status.DONE).isEmpty());
+        assertEquals(List.of(epic1), taskManager.getEpicsByStatus(Status.NEW));
+    }
+
+    @Test
+    void testGetPrioritizedTasksInRange() {
+        LocalDateTime startTime1 = LocalDateTime.of(2045, 3, 1, 10, 0);
+        Duration duration1 = Duration.ofHours(2);
+
+        Task task1 = taskManager.createTask(new Task("Купить продукты", "Хлеб яйца масло", taskManager,
+                Status.NEW, startTime1, duration1));
+        Task task2 = taskManager.createTask(new Task("Постирать вещи", "Разделить по цветам", taskManager,
+                Status.NEW, startTime1.plusHours(3), duration1));
+        Task task3 = taskManager.createTask(new Task("Помыть окна", "Без разводов", taskManager,
+                Status.NEW, startTime1.plusHours(6), null));
+        taskManager.createTask(new Task("Позвонить маме", "Вечером", taskManager, Status.NEW, null, null));
+
+        assertEquals(List.of(task1, task2), taskManager.getPrioritizedTasks(startTime1.plusHours(1),
+                startTime1.plusHours(3)), "Задача, начатая до промежутка, тоже в него попадает");
+        assertEquals(List.of(task2, task3), taskManager.getPrioritizedTasks(startTime1.plusHours(2).plusMinutes(1),
+                null));
+        assertEquals(List.of(task1), taskManager.getPrioritizedTasks(null, startTime1));
+        assertEquals(List.of(task1, task2, task3), taskManager.getPrioritizedTasks(null, null),
+                "Задачи без времени в промежуток не попадают");
+        assertTrue(taskManager.getPrioritizedTasks(startTime1.plusHours(7), startTime1.plusHours(8)).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.getPrioritizedTasks(startTime1.plusHours(1), startTime1));
+    }
+
+    @Test
+    void testApplyBatchIsAllOrNothing() {
+        LocalDateTime startTime1 = LocalDateTime.of(2044, 3, 1, 10, 0);
+        Duration duration1 = Duration.ofHours(1);
+
+        Task task1 = taskManager.createTask(new Task("Купить продукты", "Хлеб яйца масло", taskManager,
+                Status.NEW, startTime1, duration1));
+        Epic epic1 = taskManager.createEpic(new Epic("Учить английский", "Очень страшная задача", taskManager,
+                Status.NEW));
+
+        BatchResult rejected = taskManager.applyBatch(List.of(
+                BatchOperation.create(new Task("Постирать вещи", "Разделить по цветам", taskManager,
+                        Status.NEW, startTime1.plusHours(3), duration1)),
+                BatchOperation.create(new Subtask("Найти репетитора", "Почитать отзывы", taskManager,
+                        epic1.getId(), Status.NEW, startTime1.plusHours(3).plusMinutes(30), duration1)),
+                BatchOperation.delete(TaskType.TASK, 999_999)));
+        assertFalse(rejected.isApplied());
+        assertNull(rejected.getResults().get(0).getError());
+        assertNotNull(rejected.getResults().get(1).getError(), "Пересечение внутри пакета должно отклоняться");
+        assertNotNull(rejected.getResults().get(2).getError());
+        assertEquals(1, taskManager.getAllTasks().size(), "Отклонённый пакет не должен ничего менять");
+        assertTrue(taskManager.getAllSubtasks().isEmpty());
+
+        // Время удаляемой задачи можно занять в том же пакете
+        Task movedTask = new Task("Купить продукты", "Хлеб яйца масло", taskManager, Status.DONE,
+                startTime1.plusHours(5), duration1);
+        movedTask.setId(task1.getId());
+        BatchResult applied = taskManager.applyBatch(List.of(
+                BatchOperation.update(movedTask),
+                BatchOperation.create(new Subtask("Найти репетитора", "Почитать отзывы", taskManager,
+                        epic1.getId(), Status.NEW, startTime1, duration1))));
+        assertTrue(applied.isApplied());
+        assertEquals(task1.getId(), applied.getResults().get(0).getId());
+        Subtask subtask1 = taskManager.getSubtaskById(applied.getResults().get(1).getId());
+        assertNotNull(subtask1);
+        assertEquals(startTime1, epic1.getStartTime());
+        assertEquals(List.of(subtask1, movedTask), taskManager.getPrioritizedTasks());
+    }
+
+    @Test
+    public void testApplyBatchUpdateDoesNotRecordViews() {
+        Task task1 = taskManager.createTask(new Task("Купить продукты", "Хлеб яйца масло", taskManager,
+                Status.NEW, LocalDateTime.of(2044, 4, 1, 10, 0), Duration.ofHours(1)));
+        Task updated = new Task("Купить продукты", "Хлеб яйца масло", taskManager, Status.DONE,
+                task1.getStartTime(), task1.getDuration());
+        updated.setId(task1.getId());
+
+        assertTrue(taskManager.applyBatch(List.of(BatchOperation.update(updated))).isApplied());
+
+        assertEquals(Status.DONE, taskManager.getAllTasks().get(0).getStatus());
+        assertTrue(taskManager.getHistoryManager().getHistory().isEmpty(), "Изменение задачи не является просмотром");
+    }
+
     @Test
     void testGetCurrentTaskCount() {
         int countAfterFirstCall = taskManager.getCurrentTaskCount();